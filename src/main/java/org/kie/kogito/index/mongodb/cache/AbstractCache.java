@@ -16,39 +16,249 @@
 
 package org.kie.kogito.index.mongodb.cache;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.FindOneAndDeleteOptions;
+import com.mongodb.client.model.FindOneAndReplaceOptions;
+import com.mongodb.client.model.ReplaceOneModel;
 import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
 import io.quarkus.mongodb.panache.runtime.MongoOperations;
 import org.bson.BsonDocument;
-import org.bson.BsonString;
 import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.kie.kogito.index.cache.Cache;
+import org.kie.kogito.index.mongodb.metrics.MongoDBMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.mongodb.client.model.Aggregates.match;
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Projections.include;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 
 public abstract class AbstractCache<K, V, E> implements Cache<K, V> {
 
-    Optional<Consumer<V>> objectCreatedListener = Optional.empty();
-    Optional<Consumer<V>> objectUpdatedListener = Optional.empty();
-    Optional<Consumer<K>> objectRemovedListener = Optional.empty();
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractCache.class);
+
+    static final Bson ID_PROJECTION = include(MongoOperations.ID);
+
+    static final BulkWriteOptions UNORDERED = new BulkWriteOptions().ordered(false);
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.bulk-write.batch-size", defaultValue = "1000")
+    int bulkWriteBatchSize;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.write-behind.enabled", defaultValue = "false")
+    boolean writeBehindEnabled;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.write-behind.max-size", defaultValue = "1000")
+    int writeBehindMaxSize;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.write-behind.interval", defaultValue = "PT1S")
+    Duration writeBehindInterval;
+
+    WriteBehindBuffer<K, V> writeBehindBuffer;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.near-cache.enabled", defaultValue = "false")
+    boolean nearCacheEnabled;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.near-cache.maximum-size", defaultValue = "10000")
+    long nearCacheMaximumSize;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.near-cache.expire-after-write", defaultValue = "PT10M")
+    Duration nearCacheExpireAfterWrite;
+
+    private volatile NearCache<V> nearCache;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.listeners.change-stream", defaultValue = "false")
+    boolean changeStreamListeners;
+
+    private Bson listenerFilter;
+
+    private ChangeStreamWatcher<E> listenerWatcher;
+
+    private volatile CheckpointTracker listenerCheckpoints;
+
+    @Inject
+    ListenerDispatcher listenerDispatcher;
+
+    @Inject
+    MongoDBMetrics metrics;
+
+    private volatile String collectionName;
+
+    final List<Consumer<V>> objectCreatedListeners = new CopyOnWriteArrayList<>();
+    final List<Consumer<V>> objectUpdatedListeners = new CopyOnWriteArrayList<>();
+    final List<Consumer<K>> objectRemovedListeners = new CopyOnWriteArrayList<>();
 
     @Override
     public void addObjectCreatedListener(Consumer<V> consumer) {
-        this.objectCreatedListener = Optional.ofNullable(consumer);
+        addListener(objectCreatedListeners, consumer);
     }
 
     @Override
     public void addObjectUpdatedListener(Consumer<V> consumer) {
-        this.objectUpdatedListener = Optional.ofNullable(consumer);
+        addListener(objectUpdatedListeners, consumer);
     }
 
     @Override
     public void addObjectRemovedListener(Consumer<K> consumer) {
-        this.objectRemovedListener = Optional.ofNullable(consumer);
+        addListener(objectRemovedListeners, consumer);
+    }
+
+    public void removeObjectCreatedListener(Consumer<V> consumer) {
+        removeListener(objectCreatedListeners, consumer);
+    }
+
+    public void removeObjectUpdatedListener(Consumer<V> consumer) {
+        removeListener(objectUpdatedListeners, consumer);
+    }
+
+    public void removeObjectRemovedListener(Consumer<K> consumer) {
+        removeListener(objectRemovedListeners, consumer);
+    }
+
+    private <T> void addListener(List<Consumer<T>> listeners, Consumer<T> consumer) {
+        if (consumer != null) {
+            listeners.add(consumer);
+            watchListenedChanges();
+        }
+    }
+
+    private <T> void removeListener(List<Consumer<T>> listeners, Consumer<T> consumer) {
+        if (listeners.remove(consumer)) {
+            watchListenedChanges();
+        }
+    }
+
+    /**
+     * Restricts the changes notified to the listeners when they are driven by change streams, the filter is
+     * evaluated by the server against the change events, e.g. {@code eq("fullDocument.processId", "travels")}.
+     */
+    public void setListenerFilter(Bson listenerFilter) {
+        this.listenerFilter = listenerFilter;
+        watchListenedChanges();
+    }
+
+    /**
+     * When {@code kogito.data-index.mongodb.listeners.change-stream} is set, listeners are not notified by the
+     * writes of this node but by a change stream of the collection, so every node sees the changes made by any of
+     * them and writes do not wait for the listeners. The stream only carries the operation types listened to and is
+     * reopened from the last change seen when listeners or filter change.
+     */
+    private synchronized void watchListenedChanges() {
+        if (!changeStreamListeners) {
+            return;
+        }
+
+        String streamName = "listeners-" + getCollection().getNamespace().getCollectionName();
+        ResumeTokenStore resumeTokenStore = getResumeTokenStore();
+        BsonDocument resumeToken = null;
+        if (listenerWatcher != null) {
+            listenerWatcher.close();
+            resumeToken = listenerWatcher.getResumeToken();
+            listenerWatcher = null;
+        } else if (resumeTokenStore != null) {
+            resumeToken = resumeTokenStore.load(streamName);
+        }
+
+        List<String> operationTypes = new ArrayList<>();
+        if (!objectCreatedListeners.isEmpty()) {
+            operationTypes.add(OperationType.INSERT.getValue());
+        }
+        if (!objectUpdatedListeners.isEmpty()) {
+            operationTypes.addAll(asList(OperationType.REPLACE.getValue(), OperationType.UPDATE.getValue()));
+        }
+        if (!objectRemovedListeners.isEmpty()) {
+            operationTypes.add(OperationType.DELETE.getValue());
+        }
+        if (operationTypes.isEmpty()) {
+            return;
+        }
+
+        Bson operationTypeFilter = in("operationType", operationTypes);
+        Bson filter = listenerFilter == null ? operationTypeFilter : and(operationTypeFilter, listenerFilter);
+        listenerWatcher = new ChangeStreamWatcher<>(streamName, getCollection(), singletonList(match(filter)), FullDocument.UPDATE_LOOKUP,
+                                                    this::onListenedChange, () -> {});
+        listenerWatcher.resumeAfter(resumeToken);
+        if (resumeTokenStore != null) {
+            // tokens are checkpointed once the changes before them have been delivered, not when they are queued
+            long generation = resumeTokenStore.open(streamName);
+            CheckpointTracker checkpoints = new CheckpointTracker(streamName, token -> resumeTokenStore.checkpoint(streamName, generation, token));
+            listenerCheckpoints = checkpoints;
+            listenerWatcher.onResumeToken(checkpoints::advance);
+        } else {
+            listenerCheckpoints = null;
+        }
+        listenerWatcher.start();
+    }
+
+    /**
+     * @return the store used to checkpoint the listener change stream so it resumes after a restart, if any
+     */
+    ResumeTokenStore getResumeTokenStore() {
+        return null;
+    }
+
+    private void onListenedChange(ChangeStreamDocument<E> change) {
+        K key = (K) ChangeStreamWatcher.documentKey(change);
+        switch (change.getOperationType()) {
+            case INSERT:
+                Optional.ofNullable(change.getFullDocument()).ifPresent(e -> dispatchChange(key, objectCreatedListeners, mapToModel(key, e), change));
+                break;
+            case REPLACE:
+            case UPDATE:
+                Optional.ofNullable(change.getFullDocument()).ifPresent(e -> dispatchChange(key, objectUpdatedListeners, mapToModel(key, e), change));
+                break;
+            case DELETE:
+                dispatchChange(key, objectRemovedListeners, key, change);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private <T> void dispatchChange(K key, List<Consumer<T>> listeners, T value, ChangeStreamDocument<E> change) {
+        CheckpointTracker checkpoints = listenerCheckpoints;
+        if (checkpoints == null) {
+            listenerDispatcher.dispatch(key, listeners, value);
+            return;
+        }
+
+        CheckpointTracker.Position position = checkpoints.begin(change.getResumeToken());
+        if (!listenerDispatcher.dispatch(key, listeners, value, () -> checkpoints.complete(position))) {
+            checkpoints.fail(position);
+        }
     }
 
     @Override
@@ -61,9 +271,184 @@ public abstract class AbstractCache<K, V, E> implements Cache<K, V> {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Buffers writes when {@code kogito.data-index.mongodb.write-behind.enabled} is set, in which case the
+     * created/updated listeners are notified once the buffer is flushed. {@link #put(Object, Object)} still returns
+     * the previous value, looking it up when it is not buffered, {@link #set(Object, Object)} does not.
+     */
+    void initWriteBehind() {
+        if (writeBehindEnabled) {
+            writeBehindBuffer = new WriteBehindBuffer<>(getCollection().getNamespace().getCollectionName(), writeBehindMaxSize, writeBehindInterval, this::writeBuffered);
+        }
+    }
+
+    /**
+     * Writes the buffered entries, if write-behind is enabled.
+     */
+    public void flush() {
+        Optional.ofNullable(writeBehindBuffer).ifPresent(WriteBehindBuffer::flush);
+    }
+
+    /**
+     * Stops the write-behind flush schedule and writes the buffered entries, if write-behind is enabled.
+     */
+    public void drain() {
+        Optional.ofNullable(writeBehindBuffer).ifPresent(WriteBehindBuffer::drain);
+    }
+
+    /**
+     * Returns the in-process cache in front of {@link #get(Object)}, created on first use when
+     * {@code kogito.data-index.mongodb.near-cache.enabled} is set. Values are cached decoded, returned through
+     * {@link #copy(Object)} and invalidated on every change of the backing collection, made by this node or any
+     * other.
+     */
+    private NearCache<V> nearCache() {
+        if (!nearCacheEnabled) {
+            return null;
+        }
+
+        NearCache<V> cache = nearCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = nearCache;
+                if (cache == null) {
+                    cache = new NearCache<>(getCollection(), nearCacheMaximumSize, nearCacheExpireAfterWrite, this::copy);
+                    nearCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * @return the hit/miss statistics of the near cache, once it is in use
+     */
+    public Optional<CacheStats> getNearCacheStats() {
+        return Optional.ofNullable(nearCache).map(NearCache::stats);
+    }
+
+    private void invalidate(Object key) {
+        Optional.ofNullable(nearCache).ifPresent(c -> c.invalidate(key));
+    }
+
+    /**
+     * Stops the change streams of the near cache and of the listeners, if any.
+     */
+    @PreDestroy
+    void destroy() {
+        synchronized (this) {
+            Optional.ofNullable(nearCache).ifPresent(NearCache::close);
+            nearCache = null;
+            Optional.ofNullable(listenerWatcher).ifPresent(ChangeStreamWatcher::close);
+            listenerWatcher = null;
+        }
+    }
+
     @Override
     public void putAll(Map<? extends K, ? extends V> map) {
-        throw new UnsupportedOperationException();
+        metrics.time(collectionName(), "put-all", () -> {
+            if (writeBehindBuffer != null) {
+                map.forEach((k, v) -> Optional.ofNullable(v).ifPresent(value -> writeBehindBuffer.put(k, value)));
+            } else {
+                writeAll(map);
+            }
+        });
+    }
+
+    private void writeAll(Map<? extends K, ? extends V> map) {
+        List<Entry<? extends K, ? extends V>> entries = map.entrySet().stream().filter(e -> e.getValue() != null).collect(toList());
+        int batchSize = Math.max(1, bulkWriteBatchSize);
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            bulkPut(entries.subList(from, Math.min(from + batchSize, entries.size())));
+        }
+    }
+
+    /**
+     * Same as {@link #writeAll(Map)} without failing, the keys of the entries that could not be written are returned
+     * so that only those are retried.
+     */
+    private Collection<K> writeBuffered(Map<K, V> map) {
+        List<Entry<K, V>> entries = new ArrayList<>(map.entrySet());
+        int batchSize = Math.max(1, bulkWriteBatchSize);
+        List<K> failed = new ArrayList<>();
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<Entry<K, V>> batch = entries.subList(from, Math.min(from + batchSize, entries.size()));
+            try {
+                bulkPut(batch);
+            } catch (MongoBulkWriteException ex) {
+                ex.getWriteErrors().forEach(error -> failed.add(batch.get(error.getIndex()).getKey()));
+            } catch (MongoException ex) {
+                LOGGER.error("Error writing {} buffered entries to {}", batch.size(), collectionName(), ex);
+                batch.forEach(e -> failed.add(e.getKey()));
+            }
+        }
+        return failed;
+    }
+
+    private void bulkPut(List<? extends Entry<? extends K, ? extends V>> batch) {
+        List<WriteModel<E>> models = batch.stream()
+                .<WriteModel<E>> map(e -> new ReplaceOneModel<>(keyFilter(e.getKey()), mapToEntity(e.getKey(), e.getValue()), new ReplaceOptions().upsert(true)))
+                .collect(toList());
+        try {
+            BulkWriteResult result = getCollection().bulkWrite(models, UNORDERED);
+            notifyBulkPut(batch, result, Collections.emptySet());
+        } catch (MongoBulkWriteException ex) {
+            notifyBulkPut(batch, ex.getWriteResult(), ex.getWriteErrors().stream().map(BulkWriteError::getIndex).collect(toSet()));
+            throw ex;
+        } finally {
+            batch.forEach(e -> invalidate(e.getKey()));
+        }
+    }
+
+    private void notifyBulkPut(List<? extends Entry<? extends K, ? extends V>> batch, BulkWriteResult result, Set<Integer> failed) {
+        Set<Integer> upserted = result.getUpserts().stream().map(BulkWriteUpsert::getIndex).collect(toSet());
+        for (int i = 0; i < batch.size(); i++) {
+            if (!failed.contains(i)) {
+                notifyPut(batch.get(i).getKey(), !upserted.contains(i), batch.get(i).getValue());
+            }
+        }
+    }
+
+    /**
+     * Removes all the given keys in batches of {@link #bulkWriteBatchSize}. Deletes only report how many documents
+     * were deleted, not which ones, so the ids of each batch are looked up first and only the keys found, or only
+     * buffered by write-behind, are notified to the removed listeners.
+     *
+     * @return the number of removed documents
+     */
+    public int removeAll(Collection<K> keys) {
+        return metrics.time(collectionName(), "remove-all", () -> {
+            List<K> list = new ArrayList<>(keys);
+            int batchSize = Math.max(1, bulkWriteBatchSize);
+            int removed = 0;
+            for (int from = 0; from < list.size(); from += batchSize) {
+                removed += bulkRemove(list.subList(from, Math.min(from + batchSize, list.size())));
+            }
+            return removed;
+        });
+    }
+
+    private int bulkRemove(List<K> batch) {
+        // buffered entries would otherwise be written back by the next flush
+        Set<K> buffered = writeBehindBuffer == null ? Collections.emptySet()
+                : batch.stream().filter(k -> writeBehindBuffer.remove(k) != null).collect(toSet());
+        Set<Object> found = getCollection().find(in(MongoOperations.ID, batch), Document.class).projection(ID_PROJECTION)
+                .map(d -> d.get(MongoOperations.ID)).into(new HashSet<>());
+        long deleted = 0;
+        try {
+            if (!found.isEmpty()) {
+                deleted = getCollection().deleteMany(in(MongoOperations.ID, found)).getDeletedCount();
+            }
+        } finally {
+            batch.forEach(this::invalidate);
+        }
+
+        List<K> removed = batch.stream().filter(k -> found.contains(k) || buffered.contains(k)).collect(toList());
+        metrics.event(collectionName(), "removed", removed.size());
+        if (!changeStreamListeners) {
+            removed.forEach(k -> listenerDispatcher.dispatch(k, objectRemovedListeners, k));
+        }
+        return (int) deleted;
     }
 
     @Override
@@ -107,42 +492,153 @@ public abstract class AbstractCache<K, V, E> implements Cache<K, V> {
 
     abstract V mapToModel(K key, E entity);
 
+    Bson keyFilter(Object key) {
+        return new Document(MongoOperations.ID, key);
+    }
+
+    String collectionName() {
+        if (collectionName == null) {
+            collectionName = getCollection().getNamespace().getCollectionName();
+        }
+        return collectionName;
+    }
+
     @Override
     public V get(Object o) {
-        return Optional.ofNullable(getCollection().find(new Document(MongoOperations.ID, o)).first()).map(e -> mapToModel((K) o, e)).orElse(null);
+        return metrics.time(collectionName(), "get", () -> {
+            V buffered = writeBehindBuffer == null ? null : writeBehindBuffer.get(o);
+            if (buffered != null) {
+                return buffered;
+            }
+
+            return lookup(o);
+        });
+    }
+
+    private V lookup(Object o) {
+        NearCache<V> cache = nearCache();
+        return cache == null ? load(o) : cache.get(o, this::load);
+    }
+
+    /**
+     * Copies the values returned by the near cache, the models being treated as read-only they are returned as is
+     * unless overridden.
+     */
+    V copy(V value) {
+        return value;
+    }
+
+    private V load(Object o) {
+        return Optional.ofNullable(getCollection().find(keyFilter(o)).first()).map(e -> mapToModel((K) o, e)).orElse(null);
     }
 
     @Override
     public V put(K s, V v) {
-        V oldValue = this.get(s);
-        Optional.ofNullable(v).map(n -> mapToEntity(s, n)).ifPresent(
-                e -> getCollection().replaceOne(
-                        new BsonDocument(MongoOperations.ID, new BsonString(s.toString())),
-                        e, new ReplaceOptions().upsert(true)));
-        Optional.ofNullable(oldValue).map(o -> this.objectUpdatedListener).orElseGet(() -> this.objectCreatedListener).ifPresent(l -> l.accept(v));
-        return oldValue;
+        if (v == null) {
+            return this.get(s);
+        }
+
+        return metrics.time(collectionName(), "put", () -> {
+            if (writeBehindBuffer != null) {
+                // looked up before buffering so that a flush cannot return the new value
+                V stored = writeBehindBuffer.get(s) == null ? lookup(s) : null;
+                return Optional.ofNullable(writeBehindBuffer.put(s, v)).orElse(stored);
+            }
+
+            E oldEntity = upsert(s, v, null);
+            V oldValue = Optional.ofNullable(oldEntity).map(e -> mapToModel(s, e)).orElse(null);
+            notifyPut(s, oldEntity != null, v);
+            return oldValue;
+        });
+    }
+
+    /**
+     * Same as {@link #put(Object, Object)} but without returning the previous value, only the {@code _id} of the
+     * replaced document travels back from the server so the old value is never decoded.
+     */
+    public void set(K s, V v) {
+        if (v == null) {
+            return;
+        }
+
+        metrics.time(collectionName(), "put", () -> {
+            if (writeBehindBuffer != null) {
+                writeBehindBuffer.put(s, v);
+            } else {
+                notifyPut(s, upsert(s, v, ID_PROJECTION) != null, v);
+            }
+        });
+    }
+
+    private E upsert(K key, V value, Bson projection) {
+        FindOneAndReplaceOptions options = new FindOneAndReplaceOptions().upsert(true).returnDocument(ReturnDocument.BEFORE).projection(projection);
+        try {
+            return getCollection().findOneAndReplace(keyFilter(key), mapToEntity(key, value), options);
+        } finally {
+            invalidate(key);
+        }
+    }
+
+    void notifyPut(K key, boolean updated, V value) {
+        metrics.event(collectionName(), updated ? "updated" : "created");
+        if (!changeStreamListeners) {
+            listenerDispatcher.dispatch(key, updated ? objectUpdatedListeners : objectCreatedListeners, value);
+        }
+    }
+
+    void notifyRemoved(K key) {
+        metrics.event(collectionName(), "removed");
+        if (!changeStreamListeners) {
+            listenerDispatcher.dispatch(key, objectRemovedListeners, key);
+        }
     }
 
     @Override
     public void clear() {
+        Optional.ofNullable(writeBehindBuffer).ifPresent(WriteBehindBuffer::clear);
         getCollection().deleteMany(new Document());
+        Optional.ofNullable(nearCache).ifPresent(NearCache::invalidateAll);
     }
 
     @Override
     public V remove(Object o) {
-        V oldValue = this.get(o);
-        Optional.ofNullable(oldValue).ifPresent(i -> getCollection().deleteOne(new Document(MongoOperations.ID, o)));
-        Optional.ofNullable(oldValue).flatMap(i -> this.objectRemovedListener).ifPresent(l -> l.accept((K) o));
-        return oldValue;
+        return metrics.time(collectionName(), "remove", () -> {
+            V buffered = writeBehindBuffer == null ? null : writeBehindBuffer.remove(o);
+            E oldEntity = getCollection().findOneAndDelete(keyFilter(o));
+            invalidate(o);
+            if (buffered != null || oldEntity != null) {
+                notifyRemoved((K) o);
+            }
+            return Optional.ofNullable(buffered).orElseGet(() -> Optional.ofNullable(oldEntity).map(e -> mapToModel((K) o, e)).orElse(null));
+        });
+    }
+
+    /**
+     * Same as {@link #remove(Object)} but without returning the removed value, the deleted document is projected
+     * on {@code _id} so it is never decoded.
+     *
+     * @return true if a document was removed
+     */
+    public boolean delete(K k) {
+        return metrics.time(collectionName(), "remove", () -> {
+            V buffered = writeBehindBuffer == null ? null : writeBehindBuffer.remove(k);
+            E oldEntity = getCollection().findOneAndDelete(keyFilter(k), new FindOneAndDeleteOptions().projection(ID_PROJECTION));
+            invalidate(k);
+            boolean removed = buffered != null || oldEntity != null;
+            if (removed) {
+                notifyRemoved(k);
+            }
+            return removed;
+        });
     }
 
     @Override
     public int size() {
-        return (int) getCollection().countDocuments();
+        return metrics.time(collectionName(), "size", () -> (int) getCollection().countDocuments());
     }
 
     @Override
     public boolean isEmpty() {
-        return this.size() == 0;
+        return getCollection().find().projection(ID_PROJECTION).limit(1).first() == null;
     }
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.cache;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.kie.kogito.index.model.Job;
+import org.kie.kogito.index.model.ProcessInstance;
+import org.kie.kogito.index.model.UserTaskInstance;
+import org.kie.kogito.index.mongodb.metrics.MongoDBMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores bursts of process instance, user task instance and job events in as few round trips as possible.
+ */
+@ApplicationScoped
+public class BatchIngestionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchIngestionService.class);
+
+    @Inject
+    ProcessInstanceCache processInstanceCache;
+
+    @Inject
+    UserTaskInstanceCache userTaskInstanceCache;
+
+    @Inject
+    JobCache jobCache;
+
+    @Inject
+    MongoDBMetrics metrics;
+
+    /**
+     * Stores a batch of {@link ProcessInstance}s, {@link UserTaskInstance}s and {@link Job}s. Events are grouped by
+     * collection and the versions of a same id are coalesced into the one with the most recent {@code lastUpdate},
+     * the last one received winning ties. Each collection is then written with the unordered bulk upserts of
+     * {@link AbstractCache#putAll(Map)}, which notifies the listeners from the bulk write result. Events without id
+     * are rejected. When write-behind is enabled, the documents are only buffered, they are written by the next
+     * flush.
+     *
+     * @return the number of documents written, or buffered
+     */
+    public int ingest(Collection<?> events) {
+        List<ProcessInstance> processInstances = new ArrayList<>();
+        List<UserTaskInstance> userTaskInstances = new ArrayList<>();
+        List<Job> jobs = new ArrayList<>();
+        for (Object event : events) {
+            if (event instanceof ProcessInstance) {
+                processInstances.add((ProcessInstance) event);
+            } else if (event instanceof UserTaskInstance) {
+                userTaskInstances.add((UserTaskInstance) event);
+            } else if (event instanceof Job) {
+                jobs.add((Job) event);
+            } else {
+                throw new IllegalArgumentException("Unsupported event type: " + (event == null ? null : event.getClass().getName()));
+            }
+        }
+
+        return ingest(processInstanceCache, processInstances, ProcessInstance::getId, ProcessInstance::getLastUpdate)
+                + ingest(userTaskInstanceCache, userTaskInstances, UserTaskInstance::getId, UserTaskInstance::getLastUpdate)
+                + ingest(jobCache, jobs, Job::getId, Job::getLastUpdate);
+    }
+
+    private <V> int ingest(AbstractCache<String, V, ?> cache, List<V> events, Function<V, String> id, Function<V, ZonedDateTime> lastUpdate) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        String collection = cache.collectionName();
+        long start = System.nanoTime();
+        List<V> accepted = events.stream().filter(event -> id.apply(event) != null).collect(Collectors.toList());
+        int rejected = events.size() - accepted.size();
+        if (rejected > 0) {
+            LOGGER.warn("Rejected {} events of collection {} without id", rejected, collection);
+        }
+        Map<String, V> latest = coalesce(accepted, id, lastUpdate);
+        cache.putAll(latest);
+        // with write-behind the latency only covers buffering, the writes are timed by the flush
+        metrics.record(collection, cache.writeBehindBuffer == null ? "ingest" : "ingest-buffered", System.nanoTime() - start);
+        metrics.ingestion(collection, events.size(), latest.size(), rejected);
+        return latest.size();
+    }
+
+    static <V> Map<String, V> coalesce(List<V> events, Function<V, String> id, Function<V, ZonedDateTime> lastUpdate) {
+        Map<String, V> latest = new LinkedHashMap<>();
+        events.forEach(event -> latest.merge(id.apply(event), event,
+                                             (current, candidate) -> isBefore(lastUpdate.apply(candidate), lastUpdate.apply(current)) ? current : candidate));
+        return latest;
+    }
+
+    private static boolean isBefore(ZonedDateTime time, ZonedDateTime other) {
+        // events without lastUpdate are older than any other
+        return time == null ? other != null : other != null && time.isBefore(other);
+    }
+}
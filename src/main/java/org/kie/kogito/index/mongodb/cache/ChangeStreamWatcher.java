@@ -0,0 +1,183 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.cache;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import io.quarkus.mongodb.panache.runtime.MongoOperations;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Follows the change stream of a collection on a dedicated daemon thread, reopening it after failures from the
+ * last resume token seen. Change streams require MongoDB to run as a replica set or sharded cluster.
+ */
+class ChangeStreamWatcher<E> implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangeStreamWatcher.class);
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private static final int INVALID_RESUME_TOKEN = 260;
+
+    // returned instead of 286 by MongoDB 4.0 when the resume point is no longer in the oplog
+    private static final int CHANGE_STREAM_FATAL_ERROR = 280;
+
+    private final String name;
+    private final MongoCollection<E> collection;
+    private final List<Bson> pipeline;
+    private final FullDocument fullDocument;
+    private final Consumer<ChangeStreamDocument<E>> consumer;
+    private final Runnable onOpen;
+    private final Thread thread;
+    private volatile boolean running;
+    private volatile BsonDocument resumeToken;
+    private Consumer<BsonDocument> resumeTokenConsumer = token -> {
+    };
+
+    /**
+     * @param onOpen invoked every time the stream is (re)opened, as changes made before may have been missed
+     */
+    ChangeStreamWatcher(String name, MongoCollection<E> collection, List<Bson> pipeline, FullDocument fullDocument,
+                        Consumer<ChangeStreamDocument<E>> consumer, Runnable onOpen) {
+        this.name = name;
+        this.collection = collection;
+        this.pipeline = pipeline;
+        this.fullDocument = fullDocument;
+        this.consumer = consumer;
+        this.onOpen = onOpen;
+        this.thread = new Thread(this::run, "mongodb-change-stream-" + name);
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Sets the resume token the stream is opened from, must be called before {@link #start()}.
+     */
+    void resumeAfter(BsonDocument resumeToken) {
+        this.resumeToken = resumeToken;
+    }
+
+    /**
+     * @return the token after the last change consumed, or null if the stream has not been opened yet
+     */
+    BsonDocument getResumeToken() {
+        return resumeToken;
+    }
+
+    /**
+     * Sets the consumer of the resume tokens following the changes consumed, must be called before {@link #start()}.
+     */
+    void onResumeToken(Consumer<BsonDocument> resumeTokenConsumer) {
+        this.resumeTokenConsumer = resumeTokenConsumer;
+    }
+
+    void start() {
+        running = true;
+        thread.start();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            ChangeStreamIterable<E> changes = collection.watch(pipeline).fullDocument(fullDocument).maxAwaitTime(1, TimeUnit.SECONDS);
+            if (resumeToken != null) {
+                changes = changes.resumeAfter(resumeToken);
+            }
+            try (MongoChangeStreamCursor<ChangeStreamDocument<E>> cursor = changes.cursor()) {
+                onOpen.run();
+                while (running) {
+                    ChangeStreamDocument<E> change = cursor.tryNext();
+                    if (change != null) {
+                        accept(change);
+                    }
+                    updateResumeToken(cursor.getResumeToken());
+                }
+            } catch (MongoCommandException ex) {
+                if (running && isResumeTokenLost(ex.getErrorCode())) {
+                    LOGGER.warn("Change stream {} cannot be resumed, changes made since the last token were lost", name, ex);
+                    resumeToken = null;
+                } else if (running) {
+                    LOGGER.warn("Change stream {} failed, reopening it in {} ms", name, RETRY_DELAY_MILLIS, ex);
+                    sleep();
+                }
+            } catch (Exception ex) {
+                if (running) {
+                    LOGGER.warn("Change stream {} failed, reopening it in {} ms", name, RETRY_DELAY_MILLIS, ex);
+                    sleep();
+                }
+            }
+        }
+    }
+
+    private static boolean isResumeTokenLost(int errorCode) {
+        return errorCode == CHANGE_STREAM_HISTORY_LOST || errorCode == INVALID_RESUME_TOKEN || errorCode == CHANGE_STREAM_FATAL_ERROR;
+    }
+
+    private void updateResumeToken(BsonDocument token) {
+        if (token != null && !token.equals(resumeToken)) {
+            resumeToken = token;
+            resumeTokenConsumer.accept(token);
+        }
+    }
+
+    private void accept(ChangeStreamDocument<E> change) {
+        try {
+            consumer.accept(change);
+        } catch (Exception ex) {
+            LOGGER.error("Error processing change {} of stream {}", change.getResumeToken(), name, ex);
+        }
+    }
+
+    /**
+     * @return the {@code _id} of the changed document, unwrapped when it is a string
+     */
+    static Object documentKey(ChangeStreamDocument<?> change) {
+        BsonValue id = change.getDocumentKey() == null ? null : change.getDocumentKey().get(MongoOperations.ID);
+        return id != null && id.isString() ? id.asString().getValue() : id;
+    }
+
+    private void sleep() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(RETRY_DELAY_MILLIS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
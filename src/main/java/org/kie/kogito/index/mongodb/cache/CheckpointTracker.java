@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.cache;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+import org.bson.BsonDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checkpoints the resume tokens of a change stream in stream order, a token being checkpointed only once the
+ * changes before it have been acknowledged, i.e. delivered to the listeners or dropped. The checkpoint follows the
+ * lowest unacknowledged change, a dropped notification is logged and skipped rather than replayed.
+ */
+class CheckpointTracker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CheckpointTracker.class);
+
+    private final String name;
+    private final Consumer<BsonDocument> checkpoint;
+    private final Deque<Position> unacknowledged = new ArrayDeque<>();
+
+    CheckpointTracker(String name, Consumer<BsonDocument> checkpoint) {
+        this.name = name;
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Starts tracking the change with the given token, which is checkpointed once {@link #complete(Position)} has
+     * been called for it and for every change before.
+     */
+    synchronized Position begin(BsonDocument token) {
+        Position position = new Position(token);
+        unacknowledged.addLast(position);
+        return position;
+    }
+
+    synchronized void complete(Position position) {
+        position.acknowledged = true;
+        BsonDocument last = null;
+        while (!unacknowledged.isEmpty() && unacknowledged.peekFirst().acknowledged) {
+            last = unacknowledged.pollFirst().token;
+        }
+        if (last != null) {
+            checkpoint.accept(last);
+        }
+    }
+
+    /**
+     * Advances to a token that follows the changes tracked so far without being tied to a change.
+     */
+    void advance(BsonDocument token) {
+        complete(begin(token));
+    }
+
+    /**
+     * Acknowledges the change of the given position without it having been delivered.
+     */
+    synchronized void fail(Position position) {
+        LOGGER.warn("Change stream {} notification of change {} was not delivered, it is skipped", name, position.token.toJson());
+        complete(position);
+    }
+
+    static class Position {
+
+        private final BsonDocument token;
+        private boolean acknowledged;
+
+        private Position(BsonDocument token) {
+            this.token = token;
+        }
+    }
+}
@@ -41,13 +41,21 @@ public class DomainCache extends AbstractCache<String, ObjectNode, Document> {
 
     String processId;
 
+    private volatile MongoCollection<Document> collection;
+
     public void setProcessId(String processId) {
         this.processId = processId;
+        this.collection = null;
     }
 
     @Override
     public MongoCollection<Document> getCollection() {
-        return MongoOperations.mongoDatabase(Document.class).getCollection(this.processId + "_domain", Document.class);
+        MongoCollection<Document> domainCollection = collection;
+        if (domainCollection == null) {
+            domainCollection = MongoOperations.mongoDatabase(Document.class).getCollection(this.processId + "_domain", Document.class);
+            collection = domainCollection;
+        }
+        return domainCollection;
     }
 
     @Override
@@ -57,7 +65,13 @@ public class DomainCache extends AbstractCache<String, ObjectNode, Document> {
 
     @Override
     ObjectNode mapToModel(String key, Document entity) {
-        return DomainEntity.toObjectNode(key, entity);
+        return metrics.decode(collectionName(), () -> DomainEntity.toObjectNode(key, entity));
+    }
+
+    @Override
+    ObjectNode copy(ObjectNode value) {
+        // domain data is merged into the nodes returned, they must not be shared through the near cache
+        return value.deepCopy();
     }
 
     @Override
@@ -27,25 +27,40 @@ import org.kie.kogito.index.mongodb.model.JobEntity;
 import org.kie.kogito.index.mongodb.query.JobQuery;
 import org.kie.kogito.index.query.Query;
 
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.withModelCodecs;
+
 @ApplicationScoped
-public class JobCache extends AbstractCache<String, Job, JobEntity> {
+public class JobCache extends AbstractCache<String, Job, Job> {
 
     @Inject
     Provider<JobQuery> jobQueryProvider;
 
+    @Inject
+    ResumeTokenStore resumeTokenStore;
+
+    private volatile MongoCollection<Job> collection;
+
+    @Override
+    public MongoCollection<Job> getCollection() {
+        if (collection == null) {
+            collection = withModelCodecs(MongoOperations.mongoCollection(JobEntity.class), Job.class, false, metrics);
+        }
+        return collection;
+    }
+
     @Override
-    public MongoCollection<JobEntity> getCollection() {
-        return MongoOperations.mongoCollection(JobEntity.class);
+    Job mapToEntity(String key, Job value) {
+        return value;
     }
 
     @Override
-    JobEntity mapToEntity(String key, Job value) {
-        return JobEntity.fromJob(value);
+    Job mapToModel(String key, Job entity) {
+        return entity;
     }
 
     @Override
-    Job mapToModel(String key, JobEntity entity) {
-        return JobEntity.toJob(entity);
+    ResumeTokenStore getResumeTokenStore() {
+        return resumeTokenStore;
     }
 
     @Override
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.cache;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Notifies the cache listeners asynchronously. Notifications are spread by key over single threaded stripes, so
+ * those of a same key are delivered in order, each stripe having a bounded queue. When a queue is full the writer
+ * waits up to {@code kogito.data-index.mongodb.listeners.dispatch.offer-timeout} before the notification is dropped,
+ * so that a slow listener slows down ingestion but cannot stall it.
+ */
+@ApplicationScoped
+public class ListenerDispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ListenerDispatcher.class);
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.listeners.dispatch.threads", defaultValue = "4")
+    int threads;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.listeners.dispatch.queue-size", defaultValue = "10000")
+    int queueSize;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.listeners.dispatch.offer-timeout", defaultValue = "PT5S")
+    Duration offerTimeout;
+
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private ThreadPoolExecutor[] stripes;
+
+    @PostConstruct
+    void init() {
+        stripes = new ThreadPoolExecutor[Math.max(1, threads)];
+        for (int i = 0; i < stripes.length; i++) {
+            String name = "mongodb-listener-dispatch-" + i;
+            stripes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), r -> {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            stripes[i].prestartCoreThread();
+        }
+    }
+
+    @PreDestroy
+    void destroy() {
+        Arrays.stream(stripes).forEach(ThreadPoolExecutor::shutdown);
+        for (ThreadPoolExecutor stripe : stripes) {
+            try {
+                stripe.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    <T> void dispatch(Object key, List<Consumer<T>> listeners, T value) {
+        dispatch(key, listeners, value, () -> {});
+    }
+
+    /**
+     * @param onDelivered invoked once the listeners have been notified
+     * @return false if the notification was dropped, in which case {@code onDelivered} is never invoked
+     */
+    <T> boolean dispatch(Object key, List<Consumer<T>> listeners, T value, Runnable onDelivered) {
+        if (listeners.isEmpty()) {
+            onDelivered.run();
+            return true;
+        }
+
+        Runnable notification = () -> {
+            for (Consumer<T> listener : listeners) {
+                try {
+                    listener.accept(value);
+                } catch (Exception ex) {
+                    LOGGER.error("Error notifying cache listener of changes to {}", key, ex);
+                }
+            }
+            dispatched.increment();
+            onDelivered.run();
+        };
+
+        ThreadPoolExecutor stripe = stripes[Math.floorMod(Objects.hashCode(key), stripes.length)];
+        try {
+            // stripe threads are prestarted, queueing directly blocks the writer instead of rejecting the notification
+            if (stripe.getQueue().offer(notification, offerTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+            LOGGER.warn("Listener queue full, dropping notification of changes to {}", key);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * @return the number of notifications waiting to be delivered
+     */
+    public int getQueueDepth() {
+        return Arrays.stream(stripes).mapToInt(s -> s.getQueue().size()).sum();
+    }
+
+    public int getQueueCapacity() {
+        return stripes.length * queueSize;
+    }
+
+    public long getDispatchedCount() {
+        return dispatched.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+}
@@ -19,18 +19,23 @@ package org.kie.kogito.index.mongodb.cache;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
 import javax.enterprise.inject.Default;
 import javax.inject.Inject;
 import javax.inject.Provider;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
 import org.kie.kogito.index.cache.Cache;
 import org.kie.kogito.index.cache.CacheService;
 import org.kie.kogito.index.cdi.Storage;
 import org.kie.kogito.index.model.Job;
 import org.kie.kogito.index.model.ProcessInstance;
 import org.kie.kogito.index.model.UserTaskInstance;
+import org.kie.kogito.index.mongodb.index.MongoDBIndexManager;
 
 import static org.kie.kogito.index.mongodb.Constants.MONGODB_STORAGE;
 
@@ -54,6 +59,9 @@ public class MongoDBCacheService implements CacheService {
     @Inject
     Provider<DomainCache> domainModelCacheProvider;
 
+    @Inject
+    MongoDBIndexManager indexManager;
+
     Map<String, DomainCache> domainModelCacheMap = new ConcurrentHashMap<>();
 
     @Override
@@ -77,7 +85,11 @@ public class MongoDBCacheService implements CacheService {
         if (cache == null) {
             cache = domainModelCacheProvider.get();
             cache.setProcessId(processId);
-            domainModelCacheMap.putIfAbsent(processId, cache);
+            DomainCache existing = domainModelCacheMap.putIfAbsent(processId, cache);
+            if (existing != null) {
+                cache.destroy();
+                cache = existing;
+            }
         }
         return cache;
     }
@@ -86,4 +98,22 @@ public class MongoDBCacheService implements CacheService {
     public Cache<String, String> getProcessIdModelCache() {
         return processIdCache;
     }
+
+    void onStart(@Observes StartupEvent event) {
+        indexManager.provisionAsync();
+    }
+
+    /**
+     * The domain caches are dependent objects, their change streams are closed along with this service.
+     */
+    @PreDestroy
+    void destroy() {
+        domainModelCacheMap.values().forEach(DomainCache::destroy);
+        domainModelCacheMap.clear();
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        processInstanceCache.drain();
+        userTaskInstanceCache.drain();
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import io.quarkus.mongodb.panache.runtime.MongoOperations;
+import org.bson.BsonDocument;
+
+import static com.mongodb.client.model.Aggregates.project;
+import static com.mongodb.client.model.Projections.include;
+import static java.util.Collections.singletonList;
+
+/**
+ * Bounded in-process cache of decoded values, kept consistent across nodes by invalidating the entries changed in
+ * the backing collection as reported by its change stream. Hits return the value through the given copy function,
+ * so that mutable values are not shared between callers.
+ */
+class NearCache<V> implements AutoCloseable {
+
+    private final Cache<Object, V> cache;
+    private final UnaryOperator<V> copier;
+    private final ChangeStreamWatcher<BsonDocument> watcher;
+
+    NearCache(MongoCollection<?> collection, long maximumSize, Duration expireAfterWrite, UnaryOperator<V> copier) {
+        this.copier = copier;
+        this.cache = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(expireAfterWrite).recordStats().build();
+        this.watcher = new ChangeStreamWatcher<>("near-cache-" + collection.getNamespace().getCollectionName(),
+                                                 collection.withDocumentClass(BsonDocument.class),
+                                                 singletonList(project(include(MongoOperations.ID, "operationType", "documentKey"))),
+                                                 FullDocument.DEFAULT, this::onChange, cache::invalidateAll);
+        this.watcher.start();
+    }
+
+    V get(Object key, Function<Object, V> loader) {
+        return Optional.ofNullable(cache.get(key, loader)).map(copier).orElse(null);
+    }
+
+    void invalidate(Object key) {
+        cache.invalidate(key);
+    }
+
+    void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void close() {
+        watcher.close();
+        cache.invalidateAll();
+    }
+
+    private void onChange(ChangeStreamDocument<BsonDocument> change) {
+        Object key = ChangeStreamWatcher.documentKey(change);
+        if (key instanceof String) {
+            cache.invalidate(key);
+        } else {
+            cache.invalidateAll();
+        }
+    }
+}
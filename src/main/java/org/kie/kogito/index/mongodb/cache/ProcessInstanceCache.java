@@ -16,36 +16,61 @@
 
 package org.kie.kogito.index.mongodb.cache;
 
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.inject.Provider;
 
 import com.mongodb.client.MongoCollection;
 import io.quarkus.mongodb.panache.runtime.MongoOperations;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.kie.kogito.index.model.ProcessInstance;
 import org.kie.kogito.index.mongodb.model.ProcessInstanceEntity;
 import org.kie.kogito.index.mongodb.query.ProcessInstanceQuery;
 import org.kie.kogito.index.query.Query;
 
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.withModelCodecs;
+
 @ApplicationScoped
-public class ProcessInstanceCache extends AbstractCache<String, ProcessInstance, ProcessInstanceEntity> {
+public class ProcessInstanceCache extends AbstractCache<String, ProcessInstance, ProcessInstance> {
 
     @Inject
     Provider<ProcessInstanceQuery> processInstanceQueryProvider;
 
+    @Inject
+    ResumeTokenStore resumeTokenStore;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.lazy-decoding.enabled", defaultValue = "false")
+    boolean lazyDecoding;
+
+    @PostConstruct
+    void init() {
+        initWriteBehind();
+    }
+
+    private volatile MongoCollection<ProcessInstance> collection;
+
+    @Override
+    public MongoCollection<ProcessInstance> getCollection() {
+        if (collection == null) {
+            collection = withModelCodecs(MongoOperations.mongoCollection(ProcessInstanceEntity.class), ProcessInstance.class, lazyDecoding, metrics);
+        }
+        return collection;
+    }
+
     @Override
-    public MongoCollection<ProcessInstanceEntity> getCollection() {
-        return MongoOperations.mongoCollection(ProcessInstanceEntity.class);
+    ProcessInstance mapToEntity(String key, ProcessInstance value) {
+        return value;
     }
 
     @Override
-    ProcessInstanceEntity mapToEntity(String key, ProcessInstance value) {
-        return ProcessInstanceEntity.fromProcessInstance(value);
+    ProcessInstance mapToModel(String key, ProcessInstance entity) {
+        return entity;
     }
 
     @Override
-    ProcessInstance mapToModel(String key, ProcessInstanceEntity entity) {
-        return ProcessInstanceEntity.toProcessInstance(entity);
+    ResumeTokenStore getResumeTokenStore() {
+        return resumeTokenStore;
     }
 
     @Override
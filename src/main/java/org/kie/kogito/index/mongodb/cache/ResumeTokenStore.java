@@ -0,0 +1,161 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import io.quarkus.mongodb.panache.runtime.MongoOperations;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Persists the resume tokens of the change streams in the {@value #COLLECTION} collection so that they can be
+ * resumed after a restart. Tokens are kept in memory and written in one bulk write every
+ * {@code kogito.data-index.mongodb.listeners.checkpoint-interval}. Each time a stream is (re)opened it starts a
+ * new generation, the checkpoints still made for the previous ones are ignored.
+ */
+@ApplicationScoped
+public class ResumeTokenStore {
+
+    static final String COLLECTION = "changestreamcheckpoints";
+
+    static final String TOKEN = "token";
+
+    static final String LAST_UPDATE = "lastUpdate";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResumeTokenStore.class);
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.listeners.checkpoint-interval", defaultValue = "PT5S")
+    Duration checkpointInterval;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.listeners.checkpoint-group", defaultValue = "kogito-data-index")
+    String checkpointGroup;
+
+    /**
+     * Identifies this node within the group when each node must follow the streams at its own pace, it must be
+     * stable across restarts, e.g. the pod name of a stateful set. Without it the nodes of the group share the
+     * checkpoint of each stream.
+     */
+    @ConfigProperty(name = "kogito.data-index.mongodb.listeners.checkpoint-instance")
+    Optional<String> checkpointInstance;
+
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+
+    private final Map<String, BsonDocument> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "mongodb-resume-token-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, checkpointInterval.toMillis(), checkpointInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void destroy() {
+        scheduler.shutdown();
+        flushQuietly();
+    }
+
+    MongoCollection<BsonDocument> getCollection() {
+        return MongoOperations.mongoDatabase(Document.class).getCollection(COLLECTION, BsonDocument.class);
+    }
+
+    /**
+     * @return the last token checkpointed for the given stream, if any
+     */
+    BsonDocument load(String streamName) {
+        return Optional.ofNullable(getCollection().find(new Document(MongoOperations.ID, checkpointId(streamName))).first())
+                .map(d -> d.getDocument(TOKEN, null)).orElse(null);
+    }
+
+    /**
+     * Starts a new generation of the given stream.
+     *
+     * @return the generation to checkpoint the tokens of the stream with
+     */
+    long open(String streamName) {
+        return generations.merge(checkpointId(streamName), 1L, Long::sum);
+    }
+
+    void checkpoint(String streamName, long generation, BsonDocument resumeToken) {
+        String id = checkpointId(streamName);
+        // serialized with open, so that a stream being reopened cannot have an older token written afterwards
+        generations.computeIfPresent(id, (k, current) -> {
+            if (current == generation) {
+                pending.put(id, resumeToken);
+            }
+            return current;
+        });
+    }
+
+    synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<String, BsonDocument> batch = new HashMap<>(pending);
+        BsonDateTime now = new BsonDateTime(System.currentTimeMillis());
+        List<WriteModel<BsonDocument>> models = batch.entrySet().stream()
+                .<WriteModel<BsonDocument>> map(e -> new ReplaceOneModel<>(new Document(MongoOperations.ID, e.getKey()),
+                                                                        new BsonDocument(MongoOperations.ID, new BsonString(e.getKey()))
+                                                                                .append(TOKEN, e.getValue()).append(LAST_UPDATE, now),
+                                                                        new ReplaceOptions().upsert(true)))
+                .collect(toList());
+        getCollection().bulkWrite(models, AbstractCache.UNORDERED);
+        batch.forEach((id, token) -> pending.computeIfPresent(id, (k, current) -> current == token ? null : current));
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception ex) {
+            LOGGER.error("Error writing change stream checkpoints, they will be retried", ex);
+        }
+    }
+
+    private String checkpointId(String streamName) {
+        return checkpointInstance.map(instance -> checkpointGroup + ":" + instance + ":" + streamName).orElseGet(() -> checkpointGroup + ":" + streamName);
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.kie.kogito.index.mongodb.cache;
 
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -27,25 +28,45 @@ import org.kie.kogito.index.mongodb.model.UserTaskInstanceEntity;
 import org.kie.kogito.index.mongodb.query.UserTaskInstanceQuery;
 import org.kie.kogito.index.query.Query;
 
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.withModelCodecs;
+
 @ApplicationScoped
-public class UserTaskInstanceCache extends AbstractCache<String, UserTaskInstance, UserTaskInstanceEntity> {
+public class UserTaskInstanceCache extends AbstractCache<String, UserTaskInstance, UserTaskInstance> {
 
     @Inject
     Provider<UserTaskInstanceQuery> userTaskInstanceQueryProvider;
 
+    @Inject
+    ResumeTokenStore resumeTokenStore;
+
+    @PostConstruct
+    void init() {
+        initWriteBehind();
+    }
+
+    private volatile MongoCollection<UserTaskInstance> collection;
+
+    @Override
+    public MongoCollection<UserTaskInstance> getCollection() {
+        if (collection == null) {
+            collection = withModelCodecs(MongoOperations.mongoCollection(UserTaskInstanceEntity.class), UserTaskInstance.class, false, metrics);
+        }
+        return collection;
+    }
+
     @Override
-    public MongoCollection<UserTaskInstanceEntity> getCollection() {
-        return MongoOperations.mongoCollection(UserTaskInstanceEntity.class);
+    UserTaskInstance mapToEntity(String key, UserTaskInstance value) {
+        return value;
     }
 
     @Override
-    UserTaskInstanceEntity mapToEntity(String key, UserTaskInstance value) {
-        return UserTaskInstanceEntity.fromUserTaskInstance(value);
+    UserTaskInstance mapToModel(String key, UserTaskInstance entity) {
+        return entity;
     }
 
     @Override
-    UserTaskInstance mapToModel(String key, UserTaskInstanceEntity entity) {
-        return UserTaskInstanceEntity.toUserTaskInstance(entity);
+    ResumeTokenStore getResumeTokenStore() {
+        return resumeTokenStore;
     }
 
     @Override
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the latest value written for each key and hands them over to the writer in one batch, either when the
+ * buffer reaches its maximum size or when the flush interval elapses.
+ * Entries stay visible through {@link #get(Object)} until they have been written, the entries the writer reports as
+ * failed are kept for the next flush.
+ */
+class WriteBehindBuffer<K, V> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindBuffer.class);
+
+    private final ConcurrentMap<K, V> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final String name;
+    private final int maxSize;
+    private final Function<Map<K, V>, Collection<K>> writer;
+    private final ScheduledExecutorService scheduler;
+    private volatile boolean drained;
+
+    /**
+     * @param writer writes the batch and returns the keys that could not be written
+     */
+    WriteBehindBuffer(String name, int maxSize, Duration interval, Function<Map<K, V>, Collection<K>> writer) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.writer = writer;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "mongodb-write-behind-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::flushQuietly, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Once the buffer is drained, entries are written synchronously.
+     */
+    V put(K key, V value) {
+        V previous = pending.put(key, value);
+        if (drained) {
+            flush();
+        } else if (pending.size() >= maxSize && flushScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(() -> {
+                    flushScheduled.set(false);
+                    flushQuietly();
+                });
+            } catch (RejectedExecutionException ex) {
+                // drained in the meantime
+                flushScheduled.set(false);
+                flush();
+            }
+        }
+        return previous;
+    }
+
+    V get(Object key) {
+        return pending.get(key);
+    }
+
+    /**
+     * Waits for an in-flight flush to complete so that the removed key cannot be written back afterwards.
+     */
+    synchronized V remove(Object key) {
+        return pending.remove(key);
+    }
+
+    synchronized void clear() {
+        pending.clear();
+    }
+
+    int size() {
+        return pending.size();
+    }
+
+    /**
+     * Writes every pending entry. Entries replaced while being written, or that failed to be written, are kept for
+     * the next flush.
+     */
+    synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<K, V> batch = new HashMap<>(pending);
+        Collection<K> failed = writer.apply(batch);
+        batch.forEach((key, value) -> {
+            if (!failed.contains(key)) {
+                pending.computeIfPresent(key, (k, current) -> current == value ? null : current);
+            }
+        });
+        if (!failed.isEmpty()) {
+            LOGGER.warn("Error flushing write-behind buffer {}, {} entries will be retried", name, failed.size());
+        }
+    }
+
+    /**
+     * Stops the periodic flush and writes what is left in the buffer.
+     */
+    void drain() {
+        drained = true;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception ex) {
+            LOGGER.error("Error flushing write-behind buffer {}, {} entries will be retried", name, pending.size(), ex);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.codec;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.mongodb.client.MongoCollection;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.kie.kogito.index.mongodb.metrics.MongoDBMetrics;
+import org.kie.kogito.index.mongodb.utils.ModelUtils;
+
+import static org.bson.codecs.configuration.CodecRegistries.fromCodecs;
+import static org.bson.codecs.configuration.CodecRegistries.fromRegistries;
+import static org.kie.kogito.index.mongodb.utils.ModelUtils.instantToZonedDateTime;
+import static org.kie.kogito.index.mongodb.utils.ModelUtils.zonedDateTimeToInstant;
+
+/**
+ * Helpers shared by the codecs of the data index model, which read and write the same layout as the Panache
+ * entities: the id as {@code _id}, dates as epoch milliseconds and null attributes left out.
+ */
+public class CodecUtils {
+
+    static final String ID = "_id";
+
+    static final CodecRegistry MODEL_CODECS = fromCodecs(new ProcessInstanceCodec(), new UserTaskInstanceCodec(), new JobCodec());
+
+    static final CodecRegistry LAZY_MODEL_CODECS = fromCodecs(new ProcessInstanceCodec(true), new UserTaskInstanceCodec(), new JobCodec());
+
+    private CodecUtils() {
+    }
+
+    /**
+     * @return the collection decoding its documents to the given model type, the codecs of the entity collection
+     *         remaining available for the other types
+     */
+    public static <T> MongoCollection<T> withModelCodecs(MongoCollection<?> collection, Class<T> modelClass) {
+        return collection.withDocumentClass(modelClass).withCodecRegistry(fromRegistries(MODEL_CODECS, collection.getCodecRegistry()));
+    }
+
+    /**
+     * Same as {@link #withModelCodecs(MongoCollection, Class)}, recording the decoding time of the documents.
+     *
+     * @param lazy true to defer the decoding of the process instance variables and nodes, see
+     *        {@link LazyProcessInstance}
+     */
+    public static <T> MongoCollection<T> withModelCodecs(MongoCollection<?> collection, Class<T> modelClass, boolean lazy, MongoDBMetrics metrics) {
+        CodecRegistry models = lazy ? LAZY_MODEL_CODECS : MODEL_CODECS;
+        Codec<T> codec = new TimedCodec<>(models.get(modelClass), collection.getNamespace().getCollectionName(), metrics);
+        return collection.withDocumentClass(modelClass).withCodecRegistry(fromRegistries(fromCodecs(codec), models, collection.getCodecRegistry()));
+    }
+
+    static String readString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.STRING) {
+            return reader.readString();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    static Integer readInteger(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT32:
+                return reader.readInt32();
+            case INT64:
+                return (int) reader.readInt64();
+            case DOUBLE:
+                return (int) reader.readDouble();
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    static Long readLong(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT64:
+                return reader.readInt64();
+            case INT32:
+                return (long) reader.readInt32();
+            case DOUBLE:
+                return (long) reader.readDouble();
+            case DATE_TIME:
+                return reader.readDateTime();
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    static ZonedDateTime readDateTime(BsonReader reader) {
+        return instantToZonedDateTime(readLong(reader));
+    }
+
+    static Set<String> readStringSet(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        Set<String> set = new HashSet<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            set.add(readString(reader));
+        }
+        reader.readEndArray();
+        return set;
+    }
+
+    static JsonNode readJsonNode(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.DOCUMENT) {
+            return ModelUtils.readJsonNode(reader);
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null) {
+            writer.writeString(name, value);
+        }
+    }
+
+    static void writeInteger(BsonWriter writer, String name, Integer value) {
+        if (value != null) {
+            writer.writeInt32(name, value);
+        }
+    }
+
+    static void writeLong(BsonWriter writer, String name, Long value) {
+        if (value != null) {
+            writer.writeInt64(name, value);
+        }
+    }
+
+    static void writeDateTime(BsonWriter writer, String name, ZonedDateTime value) {
+        writeLong(writer, name, zonedDateTimeToInstant(value));
+    }
+
+    static void writeStringSet(BsonWriter writer, String name, Collection<String> value) {
+        if (value != null) {
+            writer.writeStartArray(name);
+            value.forEach(element -> {
+                if (element == null) {
+                    writer.writeNull();
+                } else {
+                    writer.writeString(element);
+                }
+            });
+            writer.writeEndArray();
+        }
+    }
+
+    static void writeJsonNode(BsonWriter writer, String name, JsonNode value) {
+        if (value != null) {
+            writer.writeName(name);
+            ModelUtils.writeJsonNode(writer, value);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.codec;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.kie.kogito.index.model.Job;
+
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.ID;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.readDateTime;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.readInteger;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.readLong;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.readString;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.writeDateTime;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.writeInteger;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.writeLong;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.writeString;
+
+/**
+ * Reads and writes {@link Job} with the layout of {@link org.kie.kogito.index.mongodb.model.JobEntity}.
+ */
+public class JobCodec implements Codec<Job> {
+
+    @Override
+    public Job decode(BsonReader reader, DecoderContext decoderContext) {
+        Job job = new Job();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case ID:
+                    job.setId(readString(reader));
+                    break;
+                case "processId":
+                    job.setProcessId(readString(reader));
+                    break;
+                case "processInstanceId":
+                    job.setProcessInstanceId(readString(reader));
+                    break;
+                case "rootProcessId":
+                    job.setRootProcessId(readString(reader));
+                    break;
+                case "rootProcessInstanceId":
+                    job.setRootProcessInstanceId(readString(reader));
+                    break;
+                case "expirationTime":
+                    job.setExpirationTime(readDateTime(reader));
+                    break;
+                case "priority":
+                    job.setPriority(readInteger(reader));
+                    break;
+                case "callbackEndpoint":
+                    job.setCallbackEndpoint(readString(reader));
+                    break;
+                case "repeatInterval":
+                    job.setRepeatInterval(readLong(reader));
+                    break;
+                case "repeatLimit":
+                    job.setRepeatLimit(readInteger(reader));
+                    break;
+                case "scheduledId":
+                    job.setScheduledId(readString(reader));
+                    break;
+                case "retries":
+                    job.setRetries(readInteger(reader));
+                    break;
+                case "status":
+                    job.setStatus(readString(reader));
+                    break;
+                case "lastUpdate":
+                    job.setLastUpdate(readDateTime(reader));
+                    break;
+                case "executionCounter":
+                    job.setExecutionCounter(readInteger(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return job;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Job job, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeString(writer, ID, job.getId());
+        writeString(writer, "processId", job.getProcessId());
+        writeString(writer, "processInstanceId", job.getProcessInstanceId());
+        writeString(writer, "rootProcessId", job.getRootProcessId());
+        writeString(writer, "rootProcessInstanceId", job.getRootProcessInstanceId());
+        writeDateTime(writer, "expirationTime", job.getExpirationTime());
+        writeInteger(writer, "priority", job.getPriority());
+        writeString(writer, "callbackEndpoint", job.getCallbackEndpoint());
+        writeLong(writer, "repeatInterval", job.getRepeatInterval());
+        writeInteger(writer, "repeatLimit", job.getRepeatLimit());
+        writeString(writer, "scheduledId", job.getScheduledId());
+        writeInteger(writer, "retries", job.getRetries());
+        writeString(writer, "status", job.getStatus());
+        writeDateTime(writer, "lastUpdate", job.getLastUpdate());
+        writeInteger(writer, "executionCounter", job.getExecutionCounter());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Job> getEncoderClass() {
+        return Job.class;
+    }
+}
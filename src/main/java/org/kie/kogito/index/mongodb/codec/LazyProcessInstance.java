@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.codec;
+
+import java.util.List;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.bson.BsonReader;
+import org.bson.RawBsonDocument;
+import org.kie.kogito.index.model.NodeInstance;
+import org.kie.kogito.index.model.ProcessInstance;
+
+/**
+ * Process instance whose variables and nodes are kept as raw BSON, and only decoded the first time they are read.
+ * Each is held in a document of its own, released once decoded.
+ */
+public class LazyProcessInstance extends ProcessInstance {
+
+    static final String VARIABLES = "variables";
+    static final String NODES = "nodes";
+
+    private RawBsonDocument rawVariables;
+    private RawBsonDocument rawNodes;
+
+    LazyProcessInstance() {
+    }
+
+    synchronized void setRawVariables(RawBsonDocument rawVariables) {
+        this.rawVariables = rawVariables;
+    }
+
+    synchronized void setRawNodes(RawBsonDocument rawNodes) {
+        this.rawNodes = rawNodes;
+    }
+
+    @Override
+    public synchronized JsonNode getVariables() {
+        if (rawVariables != null) {
+            setVariables(read(rawVariables, CodecUtils::readJsonNode));
+        }
+        return super.getVariables();
+    }
+
+    @Override
+    public synchronized void setVariables(JsonNode variables) {
+        rawVariables = null;
+        super.setVariables(variables);
+    }
+
+    @Override
+    public synchronized List<NodeInstance> getNodes() {
+        if (rawNodes != null) {
+            setNodes(read(rawNodes, ProcessInstanceCodec::readNodes));
+        }
+        return super.getNodes();
+    }
+
+    @Override
+    public synchronized void setNodes(List<NodeInstance> nodes) {
+        rawNodes = null;
+        super.setNodes(nodes);
+    }
+
+    /**
+     * @param document holding the single element to decode
+     */
+    private static <T> T read(RawBsonDocument document, Function<BsonReader, T> decoder) {
+        try (BsonReader reader = document.asBsonReader()) {
+            reader.readStartDocument();
+            reader.readBsonType();
+            reader.readName();
+            return decoder.apply(reader);
+        }
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.RawBsonDocumentCodec;
+import org.bson.io.BsonInput;
+import org.bson.io.BsonInputMark;
+import org.bson.io.ByteBufferBsonInput;
+import org.kie.kogito.index.model.NodeInstance;
+import org.kie.kogito.index.model.ProcessInstance;
+import org.kie.kogito.index.model.ProcessInstanceError;
+
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.ID;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.readDateTime;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.readInteger;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.readJsonNode;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.readString;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.readStringSet;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.writeDateTime;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.writeInteger;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.writeJsonNode;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.writeString;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.writeStringSet;
+
+/**
+ * Reads and writes {@link ProcessInstance} with the layout of
+ * {@link org.kie.kogito.index.mongodb.model.ProcessInstanceEntity}.
+ */
+public class ProcessInstanceCodec implements Codec<ProcessInstance> {
+
+    private static final RawBsonDocumentCodec RAW_CODEC = new RawBsonDocumentCodec();
+
+    private final boolean lazy;
+
+    public ProcessInstanceCodec() {
+        this(false);
+    }
+
+    /**
+     * @param lazy true to decode {@link LazyProcessInstance}s, whose variables and nodes are decoded on first access
+     */
+    public ProcessInstanceCodec(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    @Override
+    public ProcessInstance decode(BsonReader reader, DecoderContext decoderContext) {
+        if (lazy) {
+            if (reader instanceof BsonBinaryReader) {
+                return decodeLazy((BsonBinaryReader) reader);
+            }
+            try (BsonBinaryReader binaryReader = new BsonBinaryReader(new ByteBufferBsonInput(RAW_CODEC.decode(reader, decoderContext).getByteBuffer()))) {
+                return decodeLazy(binaryReader);
+            }
+        }
+
+        ProcessInstance instance = new ProcessInstance();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            decodeField(reader, reader.readName(), instance);
+        }
+        reader.readEndDocument();
+        return instance;
+    }
+
+    private ProcessInstance decodeLazy(BsonBinaryReader reader) {
+        LazyProcessInstance instance = new LazyProcessInstance();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            if (LazyProcessInstance.VARIABLES.equals(name)) {
+                instance.setRawVariables(copyElement(reader, name));
+            } else if (LazyProcessInstance.NODES.equals(name)) {
+                instance.setRawNodes(copyElement(reader, name));
+            } else {
+                decodeField(reader, name, instance);
+            }
+        }
+        reader.readEndDocument();
+        return instance;
+    }
+
+    /**
+     * Copies the current element into a document of its own, so that it does not keep the bytes of the whole
+     * document alive. The reader is positioned after the element name, and after its value on return.
+     */
+    private static RawBsonDocument copyElement(BsonBinaryReader reader, String name) {
+        BsonInput input = reader.getBsonInput();
+        BsonType type = reader.getCurrentBsonType();
+        BsonInputMark mark = input.getMark(Integer.MAX_VALUE);
+        int start = input.getPosition();
+        reader.skipValue();
+        int length = input.getPosition() - start;
+        mark.reset();
+
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        // document size, element type, element name, value and document terminator
+        int size = 4 + 1 + nameBytes.length + 1 + length + 1;
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(size).put((byte) type.getValue()).put(nameBytes).put((byte) 0);
+        input.readBytes(buffer.array(), buffer.position(), length);
+        buffer.array()[size - 1] = 0;
+        return new RawBsonDocument(buffer.array());
+    }
+
+    /**
+     * Reads the value of the field into the instance, the reader being positioned after the field name.
+     */
+    void decodeField(BsonReader reader, String name, ProcessInstance instance) {
+        switch (name) {
+            case ID:
+                instance.setId(readString(reader));
+                break;
+            case "processId":
+                instance.setProcessId(readString(reader));
+                break;
+            case "roles":
+                instance.setRoles(readStringSet(reader));
+                break;
+            case "variables":
+                instance.setVariables(readJsonNode(reader));
+                break;
+            case "endpoint":
+                instance.setEndpoint(readString(reader));
+                break;
+            case "nodes":
+                instance.setNodes(readNodes(reader));
+                break;
+            case "state":
+                instance.setState(readInteger(reader));
+                break;
+            case "start":
+                instance.setStart(readDateTime(reader));
+                break;
+            case "end":
+                instance.setEnd(readDateTime(reader));
+                break;
+            case "rootProcessInstanceId":
+                instance.setRootProcessInstanceId(readString(reader));
+                break;
+            case "rootProcessId":
+                instance.setRootProcessId(readString(reader));
+                break;
+            case "parentProcessInstanceId":
+                instance.setParentProcessInstanceId(readString(reader));
+                break;
+            case "processName":
+                instance.setProcessName(readString(reader));
+                break;
+            case "error":
+                instance.setError(readError(reader));
+                break;
+            case "addons":
+                instance.setAddons(readStringSet(reader));
+                break;
+            case "lastUpdate":
+                instance.setLastUpdate(readDateTime(reader));
+                break;
+            case "businessKey":
+                instance.setBusinessKey(readString(reader));
+                break;
+            default:
+                reader.skipValue();
+        }
+    }
+
+    static List<NodeInstance> readNodes(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        List<NodeInstance> nodes = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            nodes.add(readNode(reader));
+        }
+        reader.readEndArray();
+        return nodes;
+    }
+
+    private static NodeInstance readNode(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+            reader.skipValue();
+            return null;
+        }
+        NodeInstance node = new NodeInstance();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "id":
+                    node.setId(readString(reader));
+                    break;
+                case "name":
+                    node.setName(readString(reader));
+                    break;
+                case "nodeId":
+                    node.setNodeId(readString(reader));
+                    break;
+                case "type":
+                    node.setType(readString(reader));
+                    break;
+                case "enter":
+                    node.setEnter(readDateTime(reader));
+                    break;
+                case "exit":
+                    node.setExit(readDateTime(reader));
+                    break;
+                case "definitionId":
+                    node.setDefinitionId(readString(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return node;
+    }
+
+    private static ProcessInstanceError readError(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+            reader.skipValue();
+            return null;
+        }
+        ProcessInstanceError error = new ProcessInstanceError();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "nodeDefinitionId":
+                    error.setNodeDefinitionId(readString(reader));
+                    break;
+                case "message":
+                    error.setMessage(readString(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return error;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, ProcessInstance instance, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeString(writer, ID, instance.getId());
+        writeString(writer, "processId", instance.getProcessId());
+        writeStringSet(writer, "roles", instance.getRoles());
+        writeJsonNode(writer, "variables", instance.getVariables());
+        writeString(writer, "endpoint", instance.getEndpoint());
+        writeNodes(writer, instance.getNodes());
+        writeInteger(writer, "state", instance.getState());
+        writeDateTime(writer, "start", instance.getStart());
+        writeDateTime(writer, "end", instance.getEnd());
+        writeString(writer, "rootProcessInstanceId", instance.getRootProcessInstanceId());
+        writeString(writer, "rootProcessId", instance.getRootProcessId());
+        writeString(writer, "parentProcessInstanceId", instance.getParentProcessInstanceId());
+        writeString(writer, "processName", instance.getProcessName());
+        writeError(writer, instance.getError());
+        writeStringSet(writer, "addons", instance.getAddons());
+        writeDateTime(writer, "lastUpdate", instance.getLastUpdate());
+        writeString(writer, "businessKey", instance.getBusinessKey());
+        writer.writeEndDocument();
+    }
+
+    private static void writeNodes(BsonWriter writer, List<NodeInstance> nodes) {
+        if (nodes == null) {
+            return;
+        }
+        writer.writeStartArray("nodes");
+        for (NodeInstance node : nodes) {
+            if (node == null) {
+                writer.writeNull();
+                continue;
+            }
+            writer.writeStartDocument();
+            writeString(writer, "id", node.getId());
+            writeString(writer, "name", node.getName());
+            writeString(writer, "nodeId", node.getNodeId());
+            writeString(writer, "type", node.getType());
+            writeDateTime(writer, "enter", node.getEnter());
+            writeDateTime(writer, "exit", node.getExit());
+            writeString(writer, "definitionId", node.getDefinitionId());
+            writer.writeEndDocument();
+        }
+        writer.writeEndArray();
+    }
+
+    private static void writeError(BsonWriter writer, ProcessInstanceError error) {
+        if (error == null) {
+            return;
+        }
+        writer.writeStartDocument("error");
+        writeString(writer, "nodeDefinitionId", error.getNodeDefinitionId());
+        writeString(writer, "message", error.getMessage());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<ProcessInstance> getEncoderClass() {
+        return ProcessInstance.class;
+    }
+}
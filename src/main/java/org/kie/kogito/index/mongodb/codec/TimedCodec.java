@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.codec;
+
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.kie.kogito.index.mongodb.metrics.MongoDBMetrics;
+
+/**
+ * Records the decoding time of the collection documents, which the model codecs convert straight into the model.
+ */
+class TimedCodec<T> implements Codec<T> {
+
+    private final Codec<T> codec;
+    private final String collection;
+    private final MongoDBMetrics metrics;
+
+    TimedCodec(Codec<T> codec, String collection, MongoDBMetrics metrics) {
+        this.codec = codec;
+        this.collection = collection;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public T decode(BsonReader reader, DecoderContext decoderContext) {
+        return metrics.decode(collection, () -> codec.decode(reader, decoderContext));
+    }
+
+    @Override
+    public void encode(BsonWriter writer, T value, EncoderContext encoderContext) {
+        codec.encode(writer, value, encoderContext);
+    }
+
+    @Override
+    public Class<T> getEncoderClass() {
+        return codec.getEncoderClass();
+    }
+}
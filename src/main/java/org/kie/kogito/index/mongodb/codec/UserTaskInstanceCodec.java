@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.codec;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.kie.kogito.index.model.UserTaskInstance;
+
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.ID;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.readDateTime;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.readJsonNode;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.readString;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.readStringSet;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.writeDateTime;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.writeJsonNode;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.writeString;
+import static org.kie.kogito.index.mongodb.codec.CodecUtils.writeStringSet;
+
+/**
+ * Reads and writes {@link UserTaskInstance} with the layout of
+ * {@link org.kie.kogito.index.mongodb.model.UserTaskInstanceEntity}.
+ */
+public class UserTaskInstanceCodec implements Codec<UserTaskInstance> {
+
+    @Override
+    public UserTaskInstance decode(BsonReader reader, DecoderContext decoderContext) {
+        UserTaskInstance instance = new UserTaskInstance();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case ID:
+                    instance.setId(readString(reader));
+                    break;
+                case "description":
+                    instance.setDescription(readString(reader));
+                    break;
+                case "name":
+                    instance.setName(readString(reader));
+                    break;
+                case "priority":
+                    instance.setPriority(readString(reader));
+                    break;
+                case "processInstanceId":
+                    instance.setProcessInstanceId(readString(reader));
+                    break;
+                case "state":
+                    instance.setState(readString(reader));
+                    break;
+                case "actualOwner":
+                    instance.setActualOwner(readString(reader));
+                    break;
+                case "adminGroups":
+                    instance.setAdminGroups(readStringSet(reader));
+                    break;
+                case "adminUsers":
+                    instance.setAdminUsers(readStringSet(reader));
+                    break;
+                case "completed":
+                    instance.setCompleted(readDateTime(reader));
+                    break;
+                case "started":
+                    instance.setStarted(readDateTime(reader));
+                    break;
+                case "excludedUsers":
+                    instance.setExcludedUsers(readStringSet(reader));
+                    break;
+                case "potentialGroups":
+                    instance.setPotentialGroups(readStringSet(reader));
+                    break;
+                case "potentialUsers":
+                    instance.setPotentialUsers(readStringSet(reader));
+                    break;
+                case "referenceName":
+                    instance.setReferenceName(readString(reader));
+                    break;
+                case "lastUpdate":
+                    instance.setLastUpdate(readDateTime(reader));
+                    break;
+                case "processId":
+                    instance.setProcessId(readString(reader));
+                    break;
+                case "rootProcessId":
+                    instance.setRootProcessId(readString(reader));
+                    break;
+                case "rootProcessInstanceId":
+                    instance.setRootProcessInstanceId(readString(reader));
+                    break;
+                case "inputs":
+                    instance.setInputs(readJsonNode(reader));
+                    break;
+                case "outputs":
+                    instance.setOutputs(readJsonNode(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return instance;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, UserTaskInstance instance, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeString(writer, ID, instance.getId());
+        writeString(writer, "description", instance.getDescription());
+        writeString(writer, "name", instance.getName());
+        writeString(writer, "priority", instance.getPriority());
+        writeString(writer, "processInstanceId", instance.getProcessInstanceId());
+        writeString(writer, "state", instance.getState());
+        writeString(writer, "actualOwner", instance.getActualOwner());
+        writeStringSet(writer, "adminGroups", instance.getAdminGroups());
+        writeStringSet(writer, "adminUsers", instance.getAdminUsers());
+        writeDateTime(writer, "completed", instance.getCompleted());
+        writeDateTime(writer, "started", instance.getStarted());
+        writeStringSet(writer, "excludedUsers", instance.getExcludedUsers());
+        writeStringSet(writer, "potentialGroups", instance.getPotentialGroups());
+        writeStringSet(writer, "potentialUsers", instance.getPotentialUsers());
+        writeString(writer, "referenceName", instance.getReferenceName());
+        writeDateTime(writer, "lastUpdate", instance.getLastUpdate());
+        writeString(writer, "processId", instance.getProcessId());
+        writeString(writer, "rootProcessId", instance.getRootProcessId());
+        writeString(writer, "rootProcessInstanceId", instance.getRootProcessInstanceId());
+        writeJsonNode(writer, "inputs", instance.getInputs());
+        writeJsonNode(writer, "outputs", instance.getOutputs());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<UserTaskInstance> getEncoderClass() {
+        return UserTaskInstance.class;
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.index;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
+import io.quarkus.mongodb.panache.runtime.MongoOperations;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.kie.kogito.index.query.AttributeFilter;
+import org.kie.kogito.index.query.AttributeSort;
+import org.kie.kogito.index.query.SortDirection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records the attributes domain queries filter and sort on, along with how often and how long they run, and once a
+ * query shape reaches the configured thresholds recommends, or creates, an index for it. The index keys follow the
+ * equality, sort, range order so that a single index serves both the filter and the sort. Only single field indexes
+ * are created automatically: the schema of domain data is unknown, and a compound index over two array fields
+ * would make every later write of a document with both arrays fail.
+ * <p>
+ * Disabled by default: when enabled every domain query computes its candidate keys and updates the statistics of
+ * its shape, which are kept for up to {@code kogito.data-index.mongodb.domain-index-advisor.max-shapes} shapes.
+ */
+@ApplicationScoped
+public class DomainIndexAdvisor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DomainIndexAdvisor.class);
+
+    private static final BsonInt32 ASCENDING = new BsonInt32(1);
+    private static final BsonInt32 DESCENDING = new BsonInt32(-1);
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.domain-index-advisor.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.domain-index-advisor.min-queries", defaultValue = "100")
+    long minQueries;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.domain-index-advisor.min-average-latency", defaultValue = "PT0.1S")
+    Duration minAverageLatency;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.domain-index-advisor.auto-create", defaultValue = "false")
+    boolean autoCreate;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.domain-index-advisor.max-indexes", defaultValue = "10")
+    int maxIndexes;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.domain-index-advisor.max-shapes", defaultValue = "1000")
+    long maxShapes;
+
+    private Cache<String, ShapeStats> shapes;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "mongodb-domain-index-advisor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    void init() {
+        shapes = Caffeine.newBuilder().maximumSize(maxShapes).build();
+    }
+
+    /**
+     * Records a query execution, and evaluates its index candidate in the background once it reached the
+     * thresholds.
+     */
+    public void record(MongoCollection<?> collection, List<AttributeFilter> filters, List<AttributeSort> sortBy,
+            Function<String, String> attributeFunction, long nanos) {
+        if (!enabled) {
+            return;
+        }
+
+        BsonDocument keys = candidateKeys(filters, sortBy, attributeFunction);
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        String collectionName = collection.getNamespace().getCollectionName();
+        ShapeStats stats = shapes.get(shapeKey(collectionName, keys), k -> new ShapeStats(collectionName, keys));
+        stats.queries.increment();
+        stats.nanos.add(nanos);
+        if (stats.queries.sum() >= minQueries && stats.averageLatency().compareTo(minAverageLatency) >= 0
+                && stats.status.compareAndSet(IndexCandidate.Status.OBSERVED, IndexCandidate.Status.RECOMMENDED)) {
+            executor.execute(() -> evaluate(stats));
+        }
+    }
+
+    /**
+     * @return the recorded index candidates, the slowest first
+     */
+    public List<IndexCandidate> getCandidates() {
+        return shapes.asMap().values().stream()
+                .map(stats -> new IndexCandidate(stats.collection, stats.keys.toJson(), stats.queries.sum(), stats.averageLatency(), stats.status.get()))
+                .sorted(Comparator.comparing(IndexCandidate::getAverageLatency).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @PreDestroy
+    void destroy() {
+        executor.shutdownNow();
+    }
+
+    private void evaluate(ShapeStats stats) {
+        MongoCollection<?> collection = MongoOperations.mongoDatabase(Document.class).getCollection(stats.collection);
+        try {
+            List<BsonDocument> indexes = collection.listIndexes(BsonDocument.class).into(new ArrayList<>());
+            if (indexes.stream().anyMatch(index -> isPrefix(stats.keys, index.getDocument(IndexDefinition.KEY, new BsonDocument())))) {
+                stats.status.set(IndexCandidate.Status.COVERED);
+                return;
+            }
+            if (autoCreate && stats.keys.size() == 1 && indexes.size() < maxIndexes) {
+                String name = collection.createIndex(stats.keys, new IndexOptions().background(true));
+                stats.status.set(IndexCandidate.Status.CREATED);
+                LOGGER.info("Created index {} {} of collection {} after {} queries averaging {} ms", name, stats.keys.toJson(), stats.collection,
+                        stats.queries.sum(), stats.averageLatency().toMillis());
+            } else {
+                LOGGER.info("Index {} recommended for collection {} after {} queries averaging {} ms", stats.keys.toJson(), stats.collection,
+                        stats.queries.sum(), stats.averageLatency().toMillis());
+            }
+        } catch (MongoException ex) {
+            LOGGER.error("Error evaluating index {} of collection {}", stats.keys.toJson(), stats.collection, ex);
+        }
+    }
+
+    static BsonDocument candidateKeys(List<AttributeFilter> filters, List<AttributeSort> sortBy, Function<String, String> attributeFunction) {
+        List<String> equality = new ArrayList<>();
+        List<String> range = new ArrayList<>();
+        if (filters != null) {
+            collectAttributes(filters, attributeFunction, equality, range);
+        }
+
+        BsonDocument keys = new BsonDocument();
+        equality.forEach(field -> keys.put(field, ASCENDING));
+        if (sortBy != null) {
+            sortBy.forEach(sb -> {
+                String field = attributeFunction.apply(sb.getAttribute());
+                if (!keys.containsKey(field)) {
+                    keys.put(field, SortDirection.ASC.equals(sb.getSort()) ? ASCENDING : DESCENDING);
+                }
+            });
+        }
+        range.stream().filter(field -> !keys.containsKey(field)).forEach(field -> keys.put(field, ASCENDING));
+        // every collection is already indexed by id
+        if (keys.size() == 1 && keys.containsKey(MongoOperations.ID)) {
+            keys.clear();
+        }
+        return keys;
+    }
+
+    private static void collectAttributes(List<? extends AttributeFilter> filters, Function<String, String> attributeFunction, List<String> equality, List<String> range) {
+        for (AttributeFilter<?> filter : filters) {
+            switch (filter.getCondition()) {
+                case AND:
+                    collectAttributes((List<AttributeFilter>) filter.getValue(), attributeFunction, equality, range);
+                    break;
+                case OR:
+                    // each branch of an $or needs its own index
+                    break;
+                case EQUAL:
+                case IN:
+                case CONTAINS:
+                case CONTAINS_ALL:
+                case CONTAINS_ANY:
+                    addIfAbsent(equality, attributeFunction.apply(filter.getAttribute()));
+                    break;
+                default:
+                    addIfAbsent(range, attributeFunction.apply(filter.getAttribute()));
+            }
+        }
+    }
+
+    /**
+     * @return the key of the shape, cheaper to build than the JSON of the keys which is only rendered for the
+     *         candidates and the logs
+     */
+    private static String shapeKey(String collection, BsonDocument keys) {
+        StringBuilder key = new StringBuilder(collection);
+        keys.forEach((field, direction) -> key.append('|').append(field).append(':').append(direction.asNumber().intValue()));
+        return key.toString();
+    }
+
+    private static void addIfAbsent(List<String> fields, String field) {
+        if (!fields.contains(field)) {
+            fields.add(field);
+        }
+    }
+
+    private static boolean isPrefix(BsonDocument keys, BsonDocument index) {
+        if (index.size() < keys.size()) {
+            return false;
+        }
+        List<Map.Entry<String, BsonValue>> indexKeys = new ArrayList<>(index.entrySet());
+        int i = 0;
+        for (Map.Entry<String, BsonValue> key : keys.entrySet()) {
+            Map.Entry<String, BsonValue> indexKey = indexKeys.get(i++);
+            if (!key.getKey().equals(indexKey.getKey()) || !indexKey.getValue().isNumber()
+                    || key.getValue().asNumber().intValue() != indexKey.getValue().asNumber().intValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class ShapeStats {
+
+        final String collection;
+        final BsonDocument keys;
+        final LongAdder queries = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final AtomicReference<IndexCandidate.Status> status = new AtomicReference<>(IndexCandidate.Status.OBSERVED);
+
+        ShapeStats(String collection, BsonDocument keys) {
+            this.collection = collection;
+            this.keys = keys;
+        }
+
+        Duration averageLatency() {
+            long count = queries.sum();
+            return Duration.ofNanos(count == 0 ? 0 : nanos.sum() / count);
+        }
+    }
+}
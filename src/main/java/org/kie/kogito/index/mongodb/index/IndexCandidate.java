@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.index;
+
+import java.time.Duration;
+
+/**
+ * Index suggested by the {@link DomainIndexAdvisor} for the attributes a domain query filters and sorts on.
+ */
+public class IndexCandidate {
+
+    public enum Status {
+        /**
+         * The query shape has not reached the thresholds yet.
+         */
+        OBSERVED,
+        /**
+         * An existing index already starts with the candidate keys.
+         */
+        COVERED,
+        RECOMMENDED,
+        CREATED
+    }
+
+    private final String collection;
+
+    private final String keys;
+
+    private final long queries;
+
+    private final Duration averageLatency;
+
+    private final Status status;
+
+    public IndexCandidate(String collection, String keys, long queries, Duration averageLatency, Status status) {
+        this.collection = collection;
+        this.keys = keys;
+        this.queries = queries;
+        this.averageLatency = averageLatency;
+        this.status = status;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    /**
+     * @return the index keys, as JSON
+     */
+    public String getKeys() {
+        return keys;
+    }
+
+    public long getQueries() {
+        return queries;
+    }
+
+    public Duration getAverageLatency() {
+        return averageLatency;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexCandidate{" +
+                "collection='" + collection + '\'' +
+                ", keys=" + keys +
+                ", queries=" + queries +
+                ", averageLatency=" + averageLatency +
+                ", status=" + status +
+                '}';
+    }
+}
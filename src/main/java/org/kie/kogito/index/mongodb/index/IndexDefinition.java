@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.index;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.conversions.Bson;
+
+/**
+ * Index declared on a collection, identified by its name. Indexes are created with their name prefixed by
+ * {@value #PREFIX}, which tells them apart from those created by operators.
+ */
+class IndexDefinition {
+
+    static final String PREFIX = "kogito_";
+
+    static final String NAME = "name";
+    static final String KEY = "key";
+    static final String PARTIAL_FILTER_EXPRESSION = "partialFilterExpression";
+
+    private final String name;
+
+    private final BsonDocument keys;
+
+    private final BsonDocument partialFilter;
+
+    private IndexDefinition(String name, BsonDocument keys, BsonDocument partialFilter) {
+        this.name = name;
+        this.keys = keys;
+        this.partialFilter = partialFilter;
+    }
+
+    static IndexDefinition index(String name, Bson keys) {
+        return new IndexDefinition(name, toBsonDocument(keys), null);
+    }
+
+    /**
+     * @return a copy of this index only holding the documents that match the filter
+     */
+    IndexDefinition partial(Bson filter) {
+        return new IndexDefinition(name, keys, toBsonDocument(filter));
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @return the name of the index in the collection
+     */
+    String getIndexName() {
+        return PREFIX + name;
+    }
+
+    /**
+     * @return true if the index was created from a declaration
+     */
+    static boolean isManaged(String indexName) {
+        return indexName.startsWith(PREFIX);
+    }
+
+    BsonDocument getKeys() {
+        return keys;
+    }
+
+    IndexModel toIndexModel() {
+        // background builds do not block the collection on servers older than 4.2, newer ones ignore the option
+        IndexOptions options = new IndexOptions().name(getIndexName()).background(true);
+        if (partialFilter != null) {
+            options.partialFilterExpression(partialFilter);
+        }
+        return new IndexModel(keys, options);
+    }
+
+    /**
+     * @param index the index as returned by {@code listIndexes}
+     * @return true if the index has the keys, in the same order, and the partial filter of this declaration
+     */
+    boolean matches(BsonDocument index) {
+        BsonDocument key = index.getDocument(KEY, new BsonDocument());
+        if (!new ArrayList<>(keys.keySet()).equals(new ArrayList<>(key.keySet()))) {
+            return false;
+        }
+        for (Map.Entry<String, BsonValue> entry : keys.entrySet()) {
+            if (!sameValue(entry.getValue(), key.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        return Objects.equals(partialFilter, index.get(PARTIAL_FILTER_EXPRESSION));
+    }
+
+    private static boolean sameValue(BsonValue declared, BsonValue actual) {
+        // indexes created from the shell store the key directions as doubles
+        if (declared.isNumber() && actual.isNumber()) {
+            return declared.asNumber().doubleValue() == actual.asNumber().doubleValue();
+        }
+        return declared.equals(actual);
+    }
+
+    private static BsonDocument toBsonDocument(Bson bson) {
+        return bson.toBsonDocument(BsonDocument.class, MongoClientSettings.getDefaultCodecRegistry());
+    }
+
+    @Override
+    public String toString() {
+        return getIndexName() + (partialFilter == null ? keys.toJson() : keys.toJson() + " where " + partialFilter.toJson());
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexModel;
+import io.quarkus.mongodb.panache.runtime.MongoOperations;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.kie.kogito.index.mongodb.model.JobEntity;
+import org.kie.kogito.index.mongodb.model.ProcessIdEntity;
+import org.kie.kogito.index.mongodb.model.ProcessInstanceEntity;
+import org.kie.kogito.index.mongodb.model.UserTaskInstanceEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.mongodb.client.model.Filters.exists;
+import static com.mongodb.client.model.Indexes.ascending;
+import static com.mongodb.client.model.Indexes.compoundIndex;
+import static com.mongodb.client.model.Indexes.descending;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.kie.kogito.index.mongodb.index.IndexDefinition.index;
+
+/**
+ * Creates the indexes backing the common filters of the process instance, user task instance and job collections,
+ * and reports the indexes that differ from the declared ones. Declared indexes can be excluded, and single field
+ * indexes on other paths of any collection, domain ones included, can be added with
+ * {@code kogito.data-index.mongodb.indexes.included}. Provisioning runs in the background so that index builds on
+ * large collections do not hold up the startup.
+ */
+@ApplicationScoped
+public class MongoDBIndexManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MongoDBIndexManager.class);
+
+    private static final String ID_INDEX = "_id_";
+
+    static final Map<Class<?>, List<IndexDefinition>> DECLARED_INDEXES;
+
+    static {
+        Map<Class<?>, List<IndexDefinition>> indexes = new LinkedHashMap<>();
+        indexes.put(ProcessInstanceEntity.class, asList(
+                index("processId_1_state_1", compoundIndex(ascending("processId"), ascending("state"))),
+                index("state_1_lastUpdate_-1", compoundIndex(ascending("state"), descending("lastUpdate"))),
+                index("lastUpdate_-1", descending("lastUpdate")),
+                index("rootProcessInstanceId_1", ascending("rootProcessInstanceId")).partial(exists("rootProcessInstanceId")),
+                index("parentProcessInstanceId_1", ascending("parentProcessInstanceId")).partial(exists("parentProcessInstanceId")),
+                index("businessKey_1", ascending("businessKey")).partial(exists("businessKey"))));
+        indexes.put(UserTaskInstanceEntity.class, asList(
+                index("potentialUsers_1_state_1", compoundIndex(ascending("potentialUsers"), ascending("state"))),
+                index("potentialGroups_1_state_1", compoundIndex(ascending("potentialGroups"), ascending("state"))),
+                index("state_1_lastUpdate_-1", compoundIndex(ascending("state"), descending("lastUpdate"))),
+                index("processInstanceId_1", ascending("processInstanceId")),
+                index("actualOwner_1", ascending("actualOwner")).partial(exists("actualOwner"))));
+        indexes.put(JobEntity.class, asList(
+                index("status_1_expirationTime_1", compoundIndex(ascending("status"), ascending("expirationTime"))),
+                index("processId_1_status_1", compoundIndex(ascending("processId"), ascending("status"))),
+                index("processInstanceId_1", ascending("processInstanceId"))));
+        // process ids are only looked up by _id, declared without indexes so that reconcile drops managed ones
+        indexes.put(ProcessIdEntity.class, emptyList());
+        DECLARED_INDEXES = Collections.unmodifiableMap(indexes);
+    }
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.indexes.enabled", defaultValue = "true")
+    boolean enabled;
+
+    /**
+     * Declared indexes not to create, as {@code <collection>.<index name>}, e.g. {@code jobs.processInstanceId_1}.
+     */
+    @ConfigProperty(name = "kogito.data-index.mongodb.indexes.excluded")
+    Optional<List<String>> excluded;
+
+    /**
+     * Paths to index in addition to the declared indexes, as {@code <collection>.<field path>}, e.g.
+     * {@code travels_domain.traveller.lastName}.
+     */
+    @ConfigProperty(name = "kogito.data-index.mongodb.indexes.included")
+    Optional<List<String>> included;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.indexes.reconcile", defaultValue = "false")
+    boolean reconcile;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "mongodb-index-provisioning");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs {@link #provision()} on a background thread.
+     */
+    public CompletableFuture<Void> provisionAsync() {
+        return CompletableFuture.runAsync(this::provision, executor).whenComplete((result, ex) -> {
+            if (ex != null) {
+                LOGGER.error("Error provisioning indexes", ex);
+            }
+        });
+    }
+
+    /**
+     * Creates the missing declared indexes. Drifted indexes and the undeclared ones created by this manager are
+     * logged, or rebuilt and dropped when {@code kogito.data-index.mongodb.indexes.reconcile} is set. Indexes
+     * created by operators are never dropped.
+     */
+    public void provision() {
+        if (!enabled) {
+            return;
+        }
+
+        Map<String, List<IndexDefinition>> includedIndexes = includedIndexes(included.orElse(emptyList()));
+        DECLARED_INDEXES.forEach((entityClass, definitions) -> {
+            MongoCollection<Document> collection = MongoOperations.mongoCollection(entityClass).withDocumentClass(Document.class);
+            String collectionName = collection.getNamespace().getCollectionName();
+            List<IndexDefinition> declared = definitions.stream()
+                    .filter(definition -> !excluded.map(names -> names.contains(collectionName + "." + definition.getName())).orElse(false))
+                    .collect(Collectors.toList());
+            declared.addAll(Optional.ofNullable(includedIndexes.remove(collectionName)).orElse(emptyList()));
+            provision(collection, declared);
+        });
+        includedIndexes.forEach((collectionName, declared) -> provision(MongoOperations.mongoDatabase(Document.class).getCollection(collectionName), declared));
+    }
+
+    private void provision(MongoCollection<Document> collection, List<IndexDefinition> declared) {
+        try {
+            reconcile(collection, declared, reconcile);
+        } catch (MongoException ex) {
+            LOGGER.error("Error provisioning indexes of collection {}", collection.getNamespace(), ex);
+        }
+    }
+
+    /**
+     * @return the ascending single field indexes of the given {@code <collection>.<field path>} entries, by collection
+     */
+    static Map<String, List<IndexDefinition>> includedIndexes(List<String> paths) {
+        Map<String, List<IndexDefinition>> indexes = new LinkedHashMap<>();
+        for (String path : paths) {
+            int separator = path.indexOf('.');
+            if (separator <= 0 || separator == path.length() - 1) {
+                LOGGER.warn("Ignoring included index {}, expected <collection>.<field path>", path);
+                continue;
+            }
+            String field = path.substring(separator + 1);
+            indexes.computeIfAbsent(path.substring(0, separator), k -> new ArrayList<>()).add(index(field + "_1", ascending(field)));
+        }
+        return indexes;
+    }
+
+    void reconcile(MongoCollection<?> collection, List<IndexDefinition> declared, boolean dropUndeclared) {
+        Map<String, BsonDocument> existing = new HashMap<>();
+        for (BsonDocument index : collection.listIndexes(BsonDocument.class)) {
+            existing.put(index.getString(IndexDefinition.NAME).getValue(), index);
+        }
+        existing.remove(ID_INDEX);
+
+        List<IndexModel> missing = new ArrayList<>();
+        for (IndexDefinition definition : declared) {
+            BsonDocument index = existing.remove(definition.getIndexName());
+            if (index != null && definition.matches(index)) {
+                continue;
+            }
+            if (index != null) {
+                if (!dropUndeclared) {
+                    LOGGER.warn("Index {} of collection {} differs from its declaration {}", index.toJson(), collection.getNamespace(), definition);
+                    continue;
+                }
+                LOGGER.warn("Rebuilding index {} of collection {} as {}", index.toJson(), collection.getNamespace(), definition);
+                collection.dropIndex(definition.getIndexName());
+            }
+            Optional<String> equivalent = existing.entrySet().stream().filter(e -> definition.matches(e.getValue())).map(Map.Entry::getKey).findFirst();
+            if (equivalent.isPresent()) {
+                // MongoDB rejects a second index with the same keys and options
+                LOGGER.warn("Index {} of collection {} is declared as {}", equivalent.get(), collection.getNamespace(), definition.getIndexName());
+                existing.remove(equivalent.get());
+            } else {
+                missing.add(definition.toIndexModel());
+            }
+        }
+
+        existing.forEach((name, index) -> {
+            if (!IndexDefinition.isManaged(name)) {
+                LOGGER.info("Index {} of collection {} is not declared, it is left as is", index.toJson(), collection.getNamespace());
+            } else if (dropUndeclared) {
+                LOGGER.warn("Dropping undeclared index {} of collection {}", index.toJson(), collection.getNamespace());
+                collection.dropIndex(name);
+            } else {
+                LOGGER.warn("Index {} of collection {} is not declared", index.toJson(), collection.getNamespace());
+            }
+        });
+
+        if (!missing.isEmpty()) {
+            List<String> created = collection.createIndexes(missing);
+            LOGGER.info("Created indexes {} of collection {}", created, collection.getNamespace());
+        }
+    }
+}
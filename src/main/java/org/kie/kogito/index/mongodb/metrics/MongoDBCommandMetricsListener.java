@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import io.quarkus.arc.Arc;
+
+/**
+ * Times the commands sent by the MongoDB driver, tagged by command and collection. The Quarkus MongoDB client
+ * instantiates the {@link CommandListener} implementations of the application itself, hence the registry being
+ * looked up on the first event. Connection pool metrics come from the pool listener of the extension itself,
+ * enabled by default with {@code quarkus.mongodb.metrics.enabled}, as it offers no hook to add one.
+ */
+public class MongoDBCommandMetricsListener implements CommandListener {
+
+    private volatile CommandListener delegate;
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        delegate().commandStarted(event);
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        delegate().commandSucceeded(event);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        delegate().commandFailed(event);
+    }
+
+    private CommandListener delegate() {
+        if (delegate == null) {
+            synchronized (this) {
+                if (delegate == null) {
+                    delegate = new MongoMetricsCommandListener(Arc.container().instance(MeterRegistry.class).get());
+                }
+            }
+        }
+        return delegate;
+    }
+}
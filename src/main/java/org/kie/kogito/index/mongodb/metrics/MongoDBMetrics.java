@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.kie.kogito.index.mongodb.cache.ListenerDispatcher;
+import org.kie.kogito.index.mongodb.query.QueryPlanCache;
+
+/**
+ * Micrometer meters of the MongoDB storage, tagged by collection so that latencies can be followed per process.
+ * Timers and distributions publish percentile histograms, from which the monitoring backend computes the p99.
+ */
+@ApplicationScoped
+public class MongoDBMetrics {
+
+    static final String PREFIX = "kogito.data-index.mongodb.";
+    static final String OPERATIONS = PREFIX + "operations";
+    static final String DECODE = PREFIX + "decode";
+    static final String EVENTS = PREFIX + "events";
+    static final String RESULTS = PREFIX + "query.results";
+    static final String INGESTION_BATCH = PREFIX + "ingestion.batch.size";
+    static final String INGESTION_COALESCING = PREFIX + "ingestion.coalescing.ratio";
+    static final String INGESTION_REJECTED = PREFIX + "ingestion.rejected";
+
+    static final String COLLECTION = "collection";
+    static final String OPERATION = "operation";
+    static final String TYPE = "type";
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    ListenerDispatcher listenerDispatcher;
+
+    @Inject
+    QueryPlanCache queryPlanCache;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        Gauge.builder(PREFIX + "listeners.queue.depth", listenerDispatcher, ListenerDispatcher::getQueueDepth).register(registry);
+        FunctionCounter.builder(PREFIX + "listeners.dispatched", listenerDispatcher, ListenerDispatcher::getDispatchedCount).register(registry);
+        FunctionCounter.builder(PREFIX + "listeners.dropped", listenerDispatcher, ListenerDispatcher::getDroppedCount).register(registry);
+        Gauge.builder(PREFIX + "query.plan-cache.hit-rate", queryPlanCache, QueryPlanCache::getHitRate).register(registry);
+    }
+
+    public <T> T time(String collection, String operation, Supplier<T> supplier) {
+        return operationTimer(collection, operation).record(supplier);
+    }
+
+    public void time(String collection, String operation, Runnable runnable) {
+        operationTimer(collection, operation).record(runnable);
+    }
+
+    public void record(String collection, String operation, long nanos) {
+        operationTimer(collection, operation).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Times the conversion of a document into its model.
+     */
+    public <T> T decode(String collection, Supplier<T> supplier) {
+        return timers.computeIfAbsent(DECODE + "|" + collection, k -> Timer.builder(DECODE)
+                .tag(COLLECTION, collection)
+                .publishPercentileHistogram()
+                .register(registry)).record(supplier);
+    }
+
+    /**
+     * Counts the created, updated and removed objects.
+     */
+    public void event(String collection, String type) {
+        event(collection, type, 1);
+    }
+
+    public void event(String collection, String type, long count) {
+        counters.computeIfAbsent(collection + "|" + type, k -> Counter.builder(EVENTS)
+                .tag(COLLECTION, collection)
+                .tag(TYPE, type)
+                .register(registry)).increment(count);
+    }
+
+    public void resultSize(String collection, int size) {
+        summaries.computeIfAbsent(collection, k -> DistributionSummary.builder(RESULTS)
+                .tag(COLLECTION, collection)
+                .publishPercentileHistogram()
+                .register(registry)).record(size);
+    }
+
+    /**
+     * Records the size of an ingested batch, the ratio of documents stored, written or buffered, to the events
+     * accepted once coalesced, and the events rejected.
+     */
+    public void ingestion(String collection, int received, int stored, int rejected) {
+        summaries.computeIfAbsent(INGESTION_BATCH + "|" + collection, k -> DistributionSummary.builder(INGESTION_BATCH)
+                .tag(COLLECTION, collection)
+                .publishPercentileHistogram()
+                .register(registry)).record(received);
+        summaries.computeIfAbsent(INGESTION_COALESCING + "|" + collection, k -> DistributionSummary.builder(INGESTION_COALESCING)
+                .tag(COLLECTION, collection)
+                .register(registry)).record(received == rejected ? 1 : (double) stored / (received - rejected));
+        if (rejected > 0) {
+            counters.computeIfAbsent(INGESTION_REJECTED + "|" + collection, k -> Counter.builder(INGESTION_REJECTED)
+                    .tag(COLLECTION, collection)
+                    .register(registry)).increment(rejected);
+        }
+    }
+
+    private Timer operationTimer(String collection, String operation) {
+        return timers.computeIfAbsent(OPERATIONS + "|" + collection + "|" + operation, k -> Timer.builder(OPERATIONS)
+                .tag(COLLECTION, collection)
+                .tag(OPERATION, operation)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+}
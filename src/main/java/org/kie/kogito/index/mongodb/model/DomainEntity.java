@@ -45,8 +45,6 @@ public class DomainEntity {
             return null;
         }
 
-        ObjectNode n = node.deepCopy();
-        n.remove(DomainCache.ID);
-        return jsonNodeToDocument(n).append(MongoOperations.ID, new BsonString(id));
+        return jsonNodeToDocument(node, DomainCache.ID).append(MongoOperations.ID, new BsonString(id));
     }
 }
@@ -16,37 +16,84 @@
 
 package org.kie.kogito.index.mongodb.query;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeSet;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.inject.Inject;
 
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BsonField;
+import com.mongodb.client.model.Facet;
+import io.quarkus.mongodb.panache.runtime.MongoOperations;
+import org.bson.BsonArray;
+import org.bson.BsonDocumentReader;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
 import org.bson.conversions.Bson;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.kie.kogito.index.mongodb.metrics.MongoDBMetrics;
 import org.kie.kogito.index.mongodb.utils.QueryUtils;
 import org.kie.kogito.index.query.AttributeFilter;
 import org.kie.kogito.index.query.AttributeSort;
 import org.kie.kogito.index.query.Query;
 import org.kie.kogito.index.query.SortDirection;
 
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Projections.include;
 import static com.mongodb.client.model.Sorts.ascending;
 import static com.mongodb.client.model.Sorts.descending;
 import static com.mongodb.client.model.Sorts.orderBy;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.kie.kogito.index.mongodb.utils.QueryUtils.FILTER_ATTRIBUTE_FUNCTION;
-import static org.kie.kogito.index.mongodb.utils.QueryUtils.FILTER_VALUE_AS_STRING_FUNCTION;
+import static org.kie.kogito.index.mongodb.utils.QueryUtils.FILTER_VALUE_FUNCTION;
 import static org.kie.kogito.index.mongodb.utils.QueryUtils.SORT_ATTRIBUTE_FUNCTION;
 
 public abstract class AbstractQuery<T, E> implements Query<T> {
 
+    private static final String FACET_ITEMS = "items";
+    private static final String FACET_TOTAL = "total";
+    private static final String GROUP_KEY = "k";
+
+    @Inject
+    QueryPlanCache queryPlanCache;
+
+    @Inject
+    SlowQueryLog slowQueryLog;
+
+    @Inject
+    MongoDBMetrics metrics;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.query.batch-size", defaultValue = "0")
+    int defaultBatchSize;
+
+    Integer batchSize;
     Integer limit;
     Integer offset;
     List<AttributeFilter> filters;
     List<AttributeSort> sortBy;
+    List<String> projection;
+    String after;
+
+    private String collectionName;
 
     @Override
     public Query<T> limit(Integer limit) {
@@ -72,30 +119,279 @@ public abstract class AbstractQuery<T, E> implements Query<T> {
         return this;
     }
 
+    /**
+     * Sets the cursor returned with the previous page by {@link #executePage()}.
+     */
+    public AbstractQuery<T, E> after(String cursor) {
+        this.after = cursor;
+        return this;
+    }
+
+    /**
+     * Restricts the returned attributes to the given ones, e.g. the fields selected by a GraphQL query, so that the
+     * other ones, like variables or nodes, are neither transferred nor decoded. Nested attributes use the dot
+     * notation, the id is always returned.
+     */
+    public AbstractQuery<T, E> project(List<String> attributes) {
+        this.projection = attributes;
+        return this;
+    }
+
+    /**
+     * Sets the number of documents fetched per round trip by the cursor, overriding
+     * {@code kogito.data-index.mongodb.query.batch-size}.
+     */
+    public AbstractQuery<T, E> batchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
     @Override
     public List<T> execute() {
+        String collectionName = this.getCollectionName();
+        long start = System.nanoTime();
+        List<T> list = metrics.time(collectionName, "query", () -> {
+            try (Stream<T> stream = this.stream()) {
+                return stream.collect(Collectors.toList());
+            }
+        });
+        long elapsed = System.nanoTime() - start;
+        metrics.resultSize(collectionName, list.size());
+        if (slowQueryLog.isSlow(elapsed)) {
+            QueryPlan plan = this.getQueryPlan();
+            slowQueryLog.record(this.getCollection(), this.bindQuery(plan).orElse(null), plan.getSort().orElse(null), this.offset, this.limit, list.size(), elapsed);
+        }
+        return list;
+    }
+
+    /**
+     * Executes the query, mapping the documents as the stream is consumed so that only the current cursor batch is
+     * held in memory. The stream must be closed to release the cursor, e.g. with a try-with-resources.
+     */
+    public Stream<T> stream() {
+        return this.stream(this.getCollection().getDocumentClass()).map(this::mapToModel);
+    }
+
+    /**
+     * Same as {@link #stream()} without decoding the documents, which are returned as read from the wire.
+     */
+    Stream<RawBsonDocument> rawStream() {
+        return this.stream(RawBsonDocument.class);
+    }
+
+    private <R> Stream<R> stream(Class<R> documentClass) {
+        MongoCursor<R> cursor = this.find(documentClass).iterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(cursor::close);
+    }
+
+    /**
+     * Counts the documents matching the filters, regardless of the limit and offset. Without filters the count is
+     * taken from the collection metadata instead of scanning it.
+     */
+    public long count() {
+        MongoCollection<E> collection = this.getCollection();
+        if (this.filters == null || this.filters.isEmpty()) {
+            // an empty filter list still compiles to an empty query, which countDocuments would scan the collection for
+            return metrics.time(this.getCollectionName(), "count", () -> collection.estimatedDocumentCount());
+        }
+        return metrics.time(this.getCollectionName(), "count",
+                () -> this.bindQuery(this.getQueryPlan()).map(collection::countDocuments).orElseGet(collection::estimatedDocumentCount));
+    }
+
+    /**
+     * Executes the query and counts the documents matching the filters in a single round trip using a
+     * {@code $facet} stage. As the page is returned within a single document, it must stay below the 16MB BSON
+     * document limit.
+     */
+    public Page<T> executeWithCount() {
         MongoCollection<E> collection = this.getCollection();
-        Optional<Document> query = QueryUtils.generateQueryString(this.filters, this.getFilterAttributeFunction(), this.getFilterValueAsStringFunction()).map(Document::parse);
-        Optional<Bson> sort = this.generateSort();
+        QueryPlan plan = this.getQueryPlan();
+
+        List<Bson> items = new ArrayList<>();
+        plan.getSort().map(Aggregates::sort).ifPresent(items::add);
+        Optional.ofNullable(this.offset).map(Aggregates::skip).ifPresent(items::add);
+        Optional.ofNullable(this.limit).map(Aggregates::limit).ifPresent(items::add);
+        this.generateProjection(emptyList()).map(Aggregates::project).ifPresent(items::add);
+
+        List<Bson> pipeline = new ArrayList<>(2);
+        this.bindQuery(plan).map(Aggregates::match).ifPresent(pipeline::add);
+        pipeline.add(Aggregates.facet(new Facet(FACET_ITEMS, items.isEmpty() ? singletonList(Aggregates.skip(0)) : items), new Facet(FACET_TOTAL, singletonList(Aggregates.count()))));
 
-        FindIterable<E> find = query.map(collection::find).orElseGet(collection::find);
+        RawBsonDocument result = metrics.time(collection.getNamespace().getCollectionName(), "query-count", () -> collection.aggregate(pipeline, RawBsonDocument.class).first());
+        Codec<E> codec = collection.getCodecRegistry().get(collection.getDocumentClass());
+        DecoderContext context = DecoderContext.builder().build();
+        List<T> list = result.getArray(FACET_ITEMS).stream()
+                .map(item -> mapToModel(codec.decode(new BsonDocumentReader(item.asDocument()), context)))
+                .collect(Collectors.toList());
+        BsonArray total = result.getArray(FACET_TOTAL);
+        return new Page<>(list, null, total.isEmpty() ? 0L : total.get(0).asDocument().getNumber("count").longValue());
+    }
+
+    /**
+     * Groups the documents matching the filters by the given attributes and computes the aggregations of each group
+     * in the database. Each result maps the group attributes and the aggregation aliases to their values. The sort
+     * attributes refer to either of them, the limit and offset apply to the groups.
+     */
+    public List<Map<String, Object>> aggregate(List<String> groupBy, List<Aggregation> aggregations) {
+        Function<String, String> attributeFunction = this.getFilterAttributeFunction();
+        Document groupId = new Document();
+        for (int i = 0; i < groupBy.size(); i++) {
+            groupId.append(GROUP_KEY + i, "$" + attributeFunction.apply(groupBy.get(i)));
+        }
+        List<BsonField> accumulators = aggregations.stream().map(aggregation -> {
+            String field = aggregation.getFunction() == Aggregation.Function.COUNT ? null : "$" + attributeFunction.apply(aggregation.getAttribute());
+            switch (aggregation.getFunction()) {
+                case COUNT:
+                    return Accumulators.sum(aggregation.getAlias(), 1);
+                case MIN:
+                    return Accumulators.min(aggregation.getAlias(), field);
+                case MAX:
+                    return Accumulators.max(aggregation.getAlias(), field);
+                case AVG:
+                    return Accumulators.avg(aggregation.getAlias(), field);
+                default:
+                    throw new IllegalArgumentException("Unsupported aggregation function " + aggregation.getFunction());
+            }
+        }).collect(Collectors.toList());
+
+        List<Bson> pipeline = new ArrayList<>();
+        this.bindQuery(this.getQueryPlan()).map(Aggregates::match).ifPresent(pipeline::add);
+        pipeline.add(Aggregates.group(groupBy.isEmpty() ? null : groupId, accumulators));
+        Optional.ofNullable(this.sortBy).map(sortBy -> orderBy(sortBy.stream().map(sb -> {
+            int index = groupBy.indexOf(sb.getAttribute());
+            String field = index < 0 ? sb.getAttribute() : MongoOperations.ID + "." + GROUP_KEY + index;
+            return SortDirection.ASC.equals(sb.getSort()) ? ascending(field) : descending(field);
+        }).collect(Collectors.toList()))).map(Aggregates::sort).ifPresent(pipeline::add);
+        Optional.ofNullable(this.offset).map(Aggregates::skip).ifPresent(pipeline::add);
+        Optional.ofNullable(this.limit).map(Aggregates::limit).ifPresent(pipeline::add);
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        List<Document> documents = metrics.time(this.getCollectionName(), "aggregate", () -> this.getCollection().aggregate(pipeline, Document.class).into(new ArrayList<>()));
+        for (Document document : documents) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            Document id = document.get(MongoOperations.ID, Document.class);
+            for (int i = 0; i < groupBy.size(); i++) {
+                result.put(groupBy.get(i), id == null ? null : id.get(GROUP_KEY + i));
+            }
+            aggregations.forEach(aggregation -> result.put(aggregation.getAlias(), document.get(aggregation.getAlias())));
+            results.add(result);
+        }
+        return results;
+    }
+
+    private Optional<Bson> bindQuery(QueryPlan plan) {
+        return Optional.ofNullable(this.filters).flatMap(f -> plan.bindQuery(QueryUtils.queryParameters(f)));
+    }
+
+    private <R> FindIterable<R> find(Class<R> documentClass) {
+        MongoCollection<E> collection = this.getCollection();
+        QueryPlan plan = this.getQueryPlan();
+        Optional<Bson> query = this.bindQuery(plan);
+        Optional<Bson> sort = plan.getSort();
+
+        FindIterable<R> find = query.map(q -> collection.find(q, documentClass)).orElseGet(() -> collection.find(documentClass));
         find = sort.map(find::sort).orElse(find);
         find = Optional.ofNullable(this.offset).map(find::skip).orElse(find);
         find = Optional.ofNullable(this.limit).map(find::limit).orElse(find);
+        find = this.generateProjection(emptyList()).map(find::projection).orElse(find);
+        return applyBatchSize(find);
+    }
+
+    private <R> FindIterable<R> applyBatchSize(FindIterable<R> find) {
+        int size = Optional.ofNullable(this.batchSize).orElse(this.defaultBatchSize);
+        return size > 0 ? find.batchSize(size) : find;
+    }
+
+    /**
+     * Executes the query using keyset pagination: instead of skipping {@code offset} documents, the page starts
+     * after the position of the cursor set with {@link #after(String)}, so that with an index on the sort attributes
+     * every page costs the same. Results are additionally sorted by {@code _id}, the offset is ignored.
+     */
+    public Page<T> executePage() {
+        long start = System.nanoTime();
+        MongoCollection<E> collection = this.getCollection();
+        String collectionName = collection.getNamespace().getCollectionName();
+        QueryPlan plan = this.getQueryPlan();
+        KeysetCursor keyset = this.getKeysetCursor();
+        List<Bson> query = new ArrayList<>(2);
+        this.bindQuery(plan).ifPresent(query::add);
+        Optional.ofNullable(this.after).map(keyset::after).ifPresent(query::add);
+
+        Bson filter = query.isEmpty() ? new Document() : and(query);
+        FindIterable<RawBsonDocument> find = applyBatchSize(collection.find(filter, RawBsonDocument.class).sort(keyset.sort()));
+        // the sort attributes are needed to encode the next cursor
+        find = this.generateProjection(keyset.getFields()).map(find::projection).orElse(find);
+        if (this.limit != null) {
+            // one more document tells whether there is a next page
+            find = find.limit(this.limit + 1);
+        }
 
-        List<T> list = new LinkedList<>();
-        try (MongoCursor<E> cursor = find.iterator()) {
-            while (cursor.hasNext()) {
-                list.add(mapToModel(cursor.next()));
+        Codec<E> codec = collection.getCodecRegistry().get(collection.getDocumentClass());
+        DecoderContext context = DecoderContext.builder().build();
+        List<T> list = new ArrayList<>();
+        RawBsonDocument last = null;
+        try (MongoCursor<RawBsonDocument> cursor = find.iterator()) {
+            while (cursor.hasNext() && (this.limit == null || list.size() < this.limit)) {
+                last = cursor.next();
+                E entity = codec.decode(last.asBsonReader(), context);
+                list.add(mapToModel(entity));
             }
+            Page<T> page = new Page<>(list, last != null && cursor.hasNext() ? keyset.encode(last) : null);
+            long elapsed = System.nanoTime() - start;
+            metrics.record(collectionName, "page", elapsed);
+            metrics.resultSize(collectionName, list.size());
+            // the query fetches one extra document to tell whether there is a next page
+            slowQueryLog.record(collection, filter, keyset.sort(), null, this.limit == null ? null : this.limit + 1, list.size(), elapsed);
+            return page;
         }
-        return list;
+    }
+
+    private KeysetCursor getKeysetCursor() {
+        List<String> fields = new ArrayList<>();
+        List<Boolean> ascendingOrder = new ArrayList<>();
+        Optional.ofNullable(this.sortBy).ifPresent(sortBy -> sortBy.forEach(sb -> {
+            fields.add(this.getSortAttributeFunction().apply(sb.getAttribute()));
+            ascendingOrder.add(SortDirection.ASC.equals(sb.getSort()));
+        }));
+        if (!fields.contains(MongoOperations.ID)) {
+            fields.add(MongoOperations.ID);
+            ascendingOrder.add(true);
+        }
+        return new KeysetCursor(fields, ascendingOrder);
     }
 
     abstract MongoCollection<E> getCollection();
 
+    String getCollectionName() {
+        if (collectionName == null) {
+            collectionName = this.getCollection().getNamespace().getCollectionName();
+        }
+        return collectionName;
+    }
+
     abstract T mapToModel(E e);
 
+    private QueryPlan getQueryPlan() {
+        String shape = getClass().getName()
+                + "|" + Optional.ofNullable(this.filters).map(QueryUtils::queryShape).orElse(null)
+                + "|" + Optional.ofNullable(this.sortBy).map(sortBy -> sortBy.stream().map(sb -> sb.getAttribute() + ":" + sb.getSort()).collect(Collectors.joining(","))).orElse(null);
+        return queryPlanCache.get(shape, () -> new QueryPlan(
+                Optional.ofNullable(this.filters).map(f -> QueryUtils.compileQuery(f, this.getFilterAttributeFunction(), this.getFilterValueFunction())).orElse(null),
+                this.generateSort().orElse(null)));
+    }
+
+    private Optional<Bson> generateProjection(List<String> required) {
+        return Optional.ofNullable(this.projection).filter(p -> !p.isEmpty()).map(p -> {
+            Set<String> fields = new TreeSet<>();
+            p.stream().map(this.getFilterAttributeFunction()).forEach(fields::add);
+            fields.addAll(required);
+            // MongoDB rejects a projection holding both a path and one of its sub paths
+            fields.removeIf(field -> fields.stream().anyMatch(parent -> field.startsWith(parent + ".")));
+            return include(new ArrayList<>(fields));
+        });
+    }
+
     private Optional<Bson> generateSort() {
         return Optional.ofNullable(this.sortBy).map(sortBy -> orderBy(sortBy.stream().map(
                 sb -> SortDirection.ASC.equals(sb.getSort()) ?
@@ -105,8 +401,8 @@ public abstract class AbstractQuery<T, E> implements Query<T> {
         );
     }
 
-    BiFunction<String, Object, String> getFilterValueAsStringFunction() {
-        return FILTER_VALUE_AS_STRING_FUNCTION;
+    BiFunction<String, Object, Object> getFilterValueFunction() {
+        return FILTER_VALUE_FUNCTION;
     }
 
     Function<String, String> getFilterAttributeFunction() {
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.query;
+
+/**
+ * Accumulator computed for each group by {@link AbstractQuery#aggregate(java.util.List, java.util.List)}, stored
+ * in the result under its alias. Date attributes, like {@code start}, {@code end} or {@code lastUpdate}, are
+ * aggregated as epoch milliseconds.
+ */
+public class Aggregation {
+
+    public enum Function {
+        COUNT,
+        MIN,
+        MAX,
+        AVG
+    }
+
+    private final Function function;
+
+    private final String attribute;
+
+    private final String alias;
+
+    private Aggregation(Function function, String attribute, String alias) {
+        this.function = function;
+        this.attribute = attribute;
+        this.alias = alias;
+    }
+
+    public static Aggregation count(String alias) {
+        return new Aggregation(Function.COUNT, null, alias);
+    }
+
+    public static Aggregation min(String attribute, String alias) {
+        return new Aggregation(Function.MIN, attribute, alias);
+    }
+
+    public static Aggregation max(String attribute, String alias) {
+        return new Aggregation(Function.MAX, attribute, alias);
+    }
+
+    public static Aggregation avg(String attribute, String alias) {
+        return new Aggregation(Function.AVG, attribute, alias);
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public String getAlias() {
+        return alias;
+    }
+}
@@ -16,32 +16,129 @@
 
 package org.kie.kogito.index.mongodb.query;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
 import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.mongodb.client.MongoCollection;
+import org.bson.BsonReader;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
 import org.kie.kogito.index.mongodb.cache.DomainCache;
+import org.kie.kogito.index.mongodb.index.DomainIndexAdvisor;
 import org.kie.kogito.index.mongodb.model.DomainEntity;
+import org.kie.kogito.index.mongodb.utils.JsonUtils;
+import org.kie.kogito.index.mongodb.utils.ModelUtils;
 
 import static io.quarkus.mongodb.panache.runtime.MongoOperations.ID;
 
 @Dependent
 public class DomainQuery extends AbstractQuery<ObjectNode, Document> {
 
+    @Inject
+    DomainIndexAdvisor indexAdvisor;
+
     DomainCache domainCache;
 
+    private MongoCollection<Document> collection;
+
     public void setDomainCache(DomainCache domainCache) {
         this.domainCache = domainCache;
+        this.collection = null;
+    }
+
+    @Override
+    public List<ObjectNode> execute() {
+        long start = System.nanoTime();
+        try {
+            return super.execute();
+        } finally {
+            this.record(start);
+        }
+    }
+
+    @Override
+    public Page<ObjectNode> executePage() {
+        long start = System.nanoTime();
+        try {
+            return super.executePage();
+        } finally {
+            this.record(start);
+        }
+    }
+
+    /**
+     * Executes the query and writes the documents to the stream as a JSON array, straight from the BSON returned by
+     * the server, without building their Jackson nodes. The {@code _id} field is written as {@code id}.
+     *
+     * @return the number of documents written
+     */
+    public int writeJson(OutputStream out) throws IOException {
+        try (JsonGenerator generator = JsonUtils.getObjectMapper().getFactory().createGenerator(out)) {
+            return this.writeJson(generator);
+        }
+    }
+
+    /**
+     * Same as {@link #writeJson(OutputStream)} for an open generator, which is left open.
+     */
+    public int writeJson(JsonGenerator generator) throws IOException {
+        String collectionName = this.getCollectionName();
+        // only the time spent querying and reading the cursor is recorded, not the time taken to consume the output
+        long nanos = 0;
+        int count = 0;
+        long start = System.nanoTime();
+        try (Stream<RawBsonDocument> stream = this.rawStream()) {
+            Iterator<RawBsonDocument> documents = stream.iterator();
+            nanos += System.nanoTime() - start;
+            generator.writeStartArray();
+            while (true) {
+                start = System.nanoTime();
+                RawBsonDocument document = documents.hasNext() ? documents.next() : null;
+                nanos += System.nanoTime() - start;
+                if (document == null) {
+                    break;
+                }
+                try (BsonReader reader = document.asBsonReader()) {
+                    ModelUtils.writeJson(reader, generator, ID, DomainCache.ID);
+                }
+                count++;
+            }
+            generator.writeEndArray();
+        } finally {
+            metrics.record(collectionName, "query-json", nanos);
+            metrics.resultSize(collectionName, count);
+            this.recordNanos(nanos);
+        }
+        return count;
+    }
+
+    private void record(long start) {
+        this.recordNanos(System.nanoTime() - start);
+    }
+
+    private void recordNanos(long nanos) {
+        indexAdvisor.record(this.getCollection(), this.filters, this.sortBy, this.getFilterAttributeFunction(), nanos);
     }
 
     @Override
     MongoCollection<Document> getCollection() {
-        return domainCache.getCollection();
+        // resolved once per query rather than for every document decoded
+        if (collection == null) {
+            collection = domainCache.getCollection();
+        }
+        return collection;
     }
 
     @Override
     ObjectNode mapToModel(Document document) {
-        return DomainEntity.toObjectNode(document.getString(ID), document);
+        return metrics.decode(this.getCollectionName(), () -> DomainEntity.toObjectNode(document.getString(ID), document));
     }
 }
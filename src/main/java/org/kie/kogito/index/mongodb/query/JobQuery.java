@@ -22,21 +22,20 @@ import javax.inject.Inject;
 import com.mongodb.client.MongoCollection;
 import org.kie.kogito.index.model.Job;
 import org.kie.kogito.index.mongodb.cache.JobCache;
-import org.kie.kogito.index.mongodb.model.JobEntity;
 
 @Dependent
-public class JobQuery extends AbstractQuery<Job, JobEntity> {
+public class JobQuery extends AbstractQuery<Job, Job> {
 
     @Inject
     JobCache jobCache;
 
     @Override
-    MongoCollection<JobEntity> getCollection() {
+    MongoCollection<Job> getCollection() {
         return jobCache.getCollection();
     }
 
     @Override
-    Job mapToModel(JobEntity entity) {
-        return JobEntity.toJob(entity);
+    Job mapToModel(Job job) {
+        return job;
     }
 }
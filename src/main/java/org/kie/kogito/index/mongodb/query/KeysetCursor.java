@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.query;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.bson.BsonArray;
+import org.bson.BsonBoolean;
+import org.bson.BsonDocument;
+import org.bson.BsonNull;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.conversions.Bson;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.gt;
+import static com.mongodb.client.model.Filters.lt;
+import static com.mongodb.client.model.Filters.ne;
+import static com.mongodb.client.model.Filters.or;
+import static com.mongodb.client.model.Sorts.ascending;
+import static com.mongodb.client.model.Sorts.descending;
+import static com.mongodb.client.model.Sorts.orderBy;
+
+/**
+ * Opaque position in the results of a query sorted by a list of keys, the last of them being {@code _id} so that
+ * positions are unique. Encoded as the base64 of a BSON document holding the key names, directions and values.
+ */
+class KeysetCursor {
+
+    private static final String FIELDS = "f";
+
+    private static final String DIRECTIONS = "d";
+
+    private static final String VALUES = "v";
+
+    private final List<String> fields;
+
+    private final List<Boolean> ascendingOrder;
+
+    KeysetCursor(List<String> fields, List<Boolean> ascendingOrder) {
+        this.fields = fields;
+        this.ascendingOrder = ascendingOrder;
+    }
+
+    List<String> getFields() {
+        return fields;
+    }
+
+    Bson sort() {
+        List<Bson> sorts = new ArrayList<>(fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            sorts.add(ascendingOrder.get(i) ? ascending(fields.get(i)) : descending(fields.get(i)));
+        }
+        return orderBy(sorts);
+    }
+
+    /**
+     * @return the position of the given document
+     */
+    String encode(RawBsonDocument document) {
+        BsonArray names = new BsonArray();
+        BsonArray directions = new BsonArray();
+        BsonArray values = new BsonArray();
+        for (int i = 0; i < fields.size(); i++) {
+            names.add(new BsonString(fields.get(i)));
+            directions.add(BsonBoolean.valueOf(ascendingOrder.get(i)));
+            values.add(valueOf(document, fields.get(i)));
+        }
+        BsonDocument position = new BsonDocument(FIELDS, names).append(DIRECTIONS, directions).append(VALUES, values);
+        ByteBuffer buffer = new RawBsonDocument(position, new BsonDocumentCodec()).getByteBuffer().asNIO();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * @return the predicate matching the documents sorted after the given position
+     */
+    Bson after(String cursor) {
+        List<String> names = new ArrayList<>();
+        List<Boolean> directions = new ArrayList<>();
+        BsonArray values;
+        // raw documents are only parsed as they are read, malformed cursors fail on any of these reads
+        try {
+            BsonDocument position = new RawBsonDocument(Base64.getUrlDecoder().decode(cursor));
+            position.getArray(FIELDS).forEach(name -> names.add(name.asString().getValue()));
+            position.getArray(DIRECTIONS, new BsonArray()).forEach(direction -> directions.add(direction.asBoolean().getValue()));
+            values = position.getArray(VALUES);
+            if (values.size() != names.size()) {
+                throw new IllegalArgumentException(values.size() + " values for " + names.size() + " keys");
+            }
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, ex);
+        }
+        if (!fields.equals(names) || !ascendingOrder.equals(directions)) {
+            throw new IllegalArgumentException("Cursor sorted by " + describe(names, directions) + " cannot be used with a query sorted by "
+                    + describe(fields, ascendingOrder));
+        }
+
+        List<Bson> anyOf = new ArrayList<>();
+        List<Bson> equalKeys = new ArrayList<>();
+        for (int i = 0; i < fields.size(); i++) {
+            String field = fields.get(i);
+            BsonValue value = values.get(i);
+            Bson next = ascendingOrder.get(i) ? ascendingAfter(field, value) : descendingAfter(field, value);
+            if (next != null) {
+                List<Bson> allOf = new ArrayList<>(equalKeys);
+                allOf.add(next);
+                anyOf.add(allOf.size() == 1 ? next : and(allOf));
+            }
+            equalKeys.add(eq(field, value.isNull() ? null : value));
+        }
+        return anyOf.size() == 1 ? anyOf.get(0) : or(anyOf);
+    }
+
+    private static String describe(List<String> names, List<Boolean> directions) {
+        List<String> keys = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            keys.add(names.get(i) + (i < directions.size() ? (directions.get(i) ? " ASC" : " DESC") : ""));
+        }
+        return keys.toString();
+    }
+
+    // nulls and missing fields sort first
+    private static Bson ascendingAfter(String field, BsonValue value) {
+        return value.isNull() ? ne(field, null) : gt(field, value);
+    }
+
+    private static Bson descendingAfter(String field, BsonValue value) {
+        return value.isNull() ? null : or(lt(field, value), eq(field, null));
+    }
+
+    private static BsonValue valueOf(BsonDocument document, String field) {
+        BsonValue value = document;
+        for (String name : field.split("\\.")) {
+            if (!value.isDocument() || !value.asDocument().containsKey(name)) {
+                return BsonNull.VALUE;
+            }
+            value = value.asDocument().get(name);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.query;
+
+import java.util.List;
+
+/**
+ * Page of results returned by a keyset paginated query, along with the cursor to pass to
+ * {@link AbstractQuery#after(String)} to fetch the next page, or by a counted query along with the total number of
+ * matching documents.
+ */
+public class Page<T> {
+
+    private final List<T> items;
+
+    private final String nextCursor;
+
+    private final Long total;
+
+    public Page(List<T> items, String nextCursor) {
+        this(items, nextCursor, null);
+    }
+
+    public Page(List<T> items, String nextCursor, Long total) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.total = total;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return the cursor of the next page, or null if this is the last one
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @return the number of documents matching the query filters, or null if they were not counted
+     */
+    public Long getTotal() {
+        return total;
+    }
+}
@@ -26,8 +26,6 @@ import io.quarkus.mongodb.panache.runtime.MongoOperations;
 import org.kie.kogito.index.mongodb.cache.ProcessIdCache;
 import org.kie.kogito.index.mongodb.model.ProcessIdEntity;
 
-import static java.lang.String.format;
-
 @Dependent
 public class ProcessIdQuery extends AbstractQuery<String, ProcessIdEntity> {
 
@@ -46,11 +44,11 @@ public class ProcessIdQuery extends AbstractQuery<String, ProcessIdEntity> {
 
     @Override
     Function<String, String> getFilterAttributeFunction() {
-        return attribute -> format("'%s'", "processId".equalsIgnoreCase(attribute) ? MongoOperations.ID : attribute);
+        return attribute -> "processId".equalsIgnoreCase(attribute) ? MongoOperations.ID : attribute;
     }
 
     @Override
     Function<String, String> getSortAttributeFunction() {
-        return attribute -> format("%s", "processId".equalsIgnoreCase(attribute) ? MongoOperations.ID : attribute);
+        return attribute -> "processId".equalsIgnoreCase(attribute) ? MongoOperations.ID : attribute;
     }
 }
@@ -24,27 +24,26 @@ import javax.inject.Inject;
 import com.mongodb.client.MongoCollection;
 import org.kie.kogito.index.model.ProcessInstance;
 import org.kie.kogito.index.mongodb.cache.ProcessInstanceCache;
-import org.kie.kogito.index.mongodb.model.ProcessInstanceEntity;
 
 @Dependent
-public class ProcessInstanceQuery extends AbstractQuery<ProcessInstance, ProcessInstanceEntity> {
+public class ProcessInstanceQuery extends AbstractQuery<ProcessInstance, ProcessInstance> {
 
     @Inject
     ProcessInstanceCache processInstanceCache;
 
     @Override
-    MongoCollection<ProcessInstanceEntity> getCollection() {
+    MongoCollection<ProcessInstance> getCollection() {
         return processInstanceCache.getCollection();
     }
 
     @Override
-    ProcessInstance mapToModel(ProcessInstanceEntity processInstanceEntity) {
-        return ProcessInstanceEntity.toProcessInstance(processInstanceEntity);
+    ProcessInstance mapToModel(ProcessInstance processInstance) {
+        return processInstance;
     }
 
     @Override
-    BiFunction<String, Object, String> getFilterValueAsStringFunction() {
-        return (attribute, value) -> "state".equalsIgnoreCase(attribute) ? value.toString()
-                : super.getFilterValueAsStringFunction().apply(attribute, value);
+    BiFunction<String, Object, Object> getFilterValueFunction() {
+        return (attribute, value) -> "state".equalsIgnoreCase(attribute) && value instanceof String ? Integer.valueOf((String) value)
+                : super.getFilterValueFunction().apply(attribute, value);
     }
 }
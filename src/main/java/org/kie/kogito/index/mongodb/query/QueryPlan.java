@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.query;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.bson.conversions.Bson;
+
+/**
+ * Query and sort compiled for a given shape of filters and sort, values are bound on every execution.
+ */
+class QueryPlan {
+
+    private final Function<List<Object>, Bson> query;
+    private final Bson sort;
+
+    QueryPlan(Function<List<Object>, Bson> query, Bson sort) {
+        this.query = query;
+        this.sort = sort;
+    }
+
+    Optional<Bson> bindQuery(List<Object> parameters) {
+        return Optional.ofNullable(query).map(q -> q.apply(parameters));
+    }
+
+    Optional<Bson> getSort() {
+        return Optional.ofNullable(sort);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.query;
+
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Bounded cache of the {@link QueryPlan}s compiled by the queries, keyed by query type and shape of filters and sort.
+ */
+@ApplicationScoped
+public class QueryPlanCache {
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.query-plan-cache.maximum-size", defaultValue = "1000")
+    long maximumSize;
+
+    private Cache<String, QueryPlan> plans;
+
+    @PostConstruct
+    void init() {
+        plans = Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build();
+    }
+
+    QueryPlan get(String shape, Supplier<QueryPlan> compiler) {
+        return plans.get(shape, s -> compiler.get());
+    }
+
+    public CacheStats getStats() {
+        return plans.stats();
+    }
+
+    public double getHitRate() {
+        return plans.stats().hitRate();
+    }
+}
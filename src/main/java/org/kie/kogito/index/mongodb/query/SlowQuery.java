@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.query;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Query that took longer than the slow query threshold, see {@link SlowQueryLog}. The explain fields are only set
+ * for sampled queries, once the plan has been captured.
+ */
+public class SlowQuery {
+
+    private final Instant timestamp;
+
+    private final String collection;
+
+    private final String filter;
+
+    private final String sort;
+
+    private final Integer skip;
+
+    private final Integer limit;
+
+    private final int documents;
+
+    private final Duration duration;
+
+    private volatile List<String> planStages;
+
+    private volatile Long keysExamined;
+
+    private volatile Long docsExamined;
+
+    SlowQuery(Instant timestamp, String collection, String filter, String sort, Integer skip, Integer limit, int documents, Duration duration) {
+        this.timestamp = timestamp;
+        this.collection = collection;
+        this.filter = filter;
+        this.sort = sort;
+        this.skip = skip;
+        this.limit = limit;
+        this.documents = documents;
+        this.duration = duration;
+    }
+
+    void setExplain(List<String> planStages, Long keysExamined, Long docsExamined) {
+        this.keysExamined = keysExamined;
+        this.docsExamined = docsExamined;
+        this.planStages = planStages;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public String getFilter() {
+        return filter;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public Integer getSkip() {
+        return skip;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public int getDocuments() {
+        return documents;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return the stages of the winning plan, from the root, or null if the query was not explained
+     */
+    public List<String> getPlanStages() {
+        return planStages;
+    }
+
+    public Long getKeysExamined() {
+        return keysExamined;
+    }
+
+    public Long getDocsExamined() {
+        return docsExamined;
+    }
+
+    public boolean isCollectionScan() {
+        List<String> stages = planStages;
+        return stages != null && stages.contains(SlowQueryLog.COLLSCAN);
+    }
+
+    @Override
+    public String toString() {
+        return "SlowQuery{" +
+                "timestamp=" + timestamp +
+                ", collection='" + collection + '\'' +
+                ", filter=" + filter +
+                ", sort=" + sort +
+                ", skip=" + skip +
+                ", limit=" + limit +
+                ", documents=" + documents +
+                ", duration=" + duration +
+                ", planStages=" + planStages +
+                ", keysExamined=" + keysExamined +
+                ", docsExamined=" + docsExamined +
+                '}';
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.query;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs the queries slower than {@code kogito.data-index.mongodb.slow-query.threshold} and keeps the latest ones in
+ * a ring buffer. A sample of them is explained in the background with the {@code executionStats} verbosity, so
+ * that collection scans show up without enabling the MongoDB profiler.
+ */
+@ApplicationScoped
+public class SlowQueryLog {
+
+    static final String COLLSCAN = "COLLSCAN";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.slow-query.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.slow-query.threshold", defaultValue = "PT0.5S")
+    Duration threshold;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.slow-query.explain-sample-rate", defaultValue = "0.1")
+    double explainSampleRate;
+
+    @ConfigProperty(name = "kogito.data-index.mongodb.slow-query.buffer-size", defaultValue = "100")
+    int bufferSize;
+
+    @Inject
+    MongoClient mongoClient;
+
+    private final Deque<SlowQuery> entries = new ArrayDeque<>();
+    private ThreadPoolExecutor explainer;
+
+    @PostConstruct
+    void init() {
+        // pending explains are discarded rather than piling up behind a struggling server
+        explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16), r -> {
+            Thread thread = new Thread(r, "mongodb-slow-query-explain");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    void destroy() {
+        explainer.shutdownNow();
+    }
+
+    boolean isSlow(long nanos) {
+        return enabled && nanos >= threshold.toNanos();
+    }
+
+    void record(MongoCollection<?> collection, Bson filter, Bson sort, Integer skip, Integer limit, int documents, long nanos) {
+        if (!isSlow(nanos)) {
+            return;
+        }
+
+        BsonDocument filterDocument = toBsonDocument(collection, filter);
+        BsonDocument sortDocument = toBsonDocument(collection, sort);
+        SlowQuery query = new SlowQuery(Instant.now(), collection.getNamespace().getCollectionName(), filterDocument.toJson(),
+                sortDocument.isEmpty() ? null : sortDocument.toJson(), skip, limit, documents, Duration.ofNanos(nanos));
+        LOGGER.warn("Slow query on {} took {} ms returning {} documents, filter: {}, sort: {}, skip: {}, limit: {}", query.getCollection(),
+                query.getDuration().toMillis(), documents, query.getFilter(), query.getSort(), skip, limit);
+        synchronized (entries) {
+            if (entries.size() >= bufferSize) {
+                entries.removeFirst();
+            }
+            entries.addLast(query);
+        }
+
+        if (ThreadLocalRandom.current().nextDouble() < explainSampleRate) {
+            String database = collection.getNamespace().getDatabaseName();
+            explainer.execute(() -> explain(database, query, filterDocument, sortDocument));
+        }
+    }
+
+    /**
+     * @return the latest slow queries, the oldest first
+     */
+    public List<SlowQuery> getEntries() {
+        synchronized (entries) {
+            return new ArrayList<>(entries);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private void explain(String database, SlowQuery query, BsonDocument filter, BsonDocument sort) {
+        Document find = new Document("find", query.getCollection()).append("filter", filter);
+        if (!sort.isEmpty()) {
+            find.append("sort", sort);
+        }
+        if (query.getSkip() != null) {
+            find.append("skip", query.getSkip());
+        }
+        if (query.getLimit() != null) {
+            find.append("limit", query.getLimit());
+        }
+
+        try {
+            // the 4.0 driver has no explain helper, the command is run as is against the database of the collection
+            BsonDocument explain = mongoClient.getDatabase(database)
+                    .runCommand(new Document("explain", find).append("verbosity", "executionStats"), BsonDocument.class);
+            List<String> stages = new ArrayList<>();
+            collectStages(explain.getDocument("queryPlanner", new BsonDocument()).getDocument("winningPlan", new BsonDocument()), stages);
+            BsonDocument stats = explain.getDocument("executionStats", new BsonDocument());
+            query.setExplain(stages, longValue(stats.get("totalKeysExamined")), longValue(stats.get("totalDocsExamined")));
+            if (query.isCollectionScan()) {
+                LOGGER.warn("Slow query on {} with filter {} scanned the whole collection, {} documents examined", query.getCollection(), query.getFilter(),
+                        query.getDocsExamined());
+            }
+        } catch (MongoException ex) {
+            LOGGER.debug("Error explaining slow query on {}", query.getCollection(), ex);
+        }
+    }
+
+    private static void collectStages(BsonDocument plan, List<String> stages) {
+        if (plan.containsKey("stage")) {
+            stages.add(plan.getString("stage").getValue());
+        }
+        if (plan.isDocument("inputStage")) {
+            collectStages(plan.getDocument("inputStage"), stages);
+        }
+        if (plan.isArray("inputStages")) {
+            plan.getArray("inputStages").stream().filter(BsonValue::isDocument).forEach(stage -> collectStages(stage.asDocument(), stages));
+        }
+    }
+
+    private static Long longValue(BsonValue value) {
+        return value != null && value.isNumber() ? value.asNumber().longValue() : null;
+    }
+
+    private static BsonDocument toBsonDocument(MongoCollection<?> collection, Bson bson) {
+        return bson == null ? new BsonDocument() : bson.toBsonDocument(BsonDocument.class, collection.getCodecRegistry());
+    }
+}
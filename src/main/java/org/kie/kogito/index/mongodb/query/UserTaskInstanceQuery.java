@@ -22,21 +22,20 @@ import javax.inject.Inject;
 import com.mongodb.client.MongoCollection;
 import org.kie.kogito.index.model.UserTaskInstance;
 import org.kie.kogito.index.mongodb.cache.UserTaskInstanceCache;
-import org.kie.kogito.index.mongodb.model.UserTaskInstanceEntity;
 
 @Dependent
-public class UserTaskInstanceQuery extends AbstractQuery<UserTaskInstance, UserTaskInstanceEntity> {
+public class UserTaskInstanceQuery extends AbstractQuery<UserTaskInstance, UserTaskInstance> {
 
     @Inject
     UserTaskInstanceCache userTaskInstanceCache;
 
     @Override
-    MongoCollection<UserTaskInstanceEntity> getCollection() {
+    MongoCollection<UserTaskInstance> getCollection() {
         return userTaskInstanceCache.getCollection();
     }
 
     @Override
-    UserTaskInstance mapToModel(UserTaskInstanceEntity userTaskInstanceEntity) {
-        return UserTaskInstanceEntity.toUserTaskInstance(userTaskInstanceEntity);
+    UserTaskInstance mapToModel(UserTaskInstance userTaskInstance) {
+        return userTaskInstance;
     }
 }
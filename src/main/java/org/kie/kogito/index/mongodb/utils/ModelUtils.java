@@ -16,14 +16,30 @@
 
 package org.kie.kogito.index.mongodb.utils;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
 import org.bson.Document;
+import org.bson.codecs.BsonValueCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
 import org.bson.json.JsonWriterSettings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,6 +48,10 @@ public class ModelUtils {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ModelUtils.class);
 
+    private static final String VALUE = "value";
+
+    private static final BsonValueCodec BSON_VALUE_CODEC = new BsonValueCodec();
+
     private static final JsonWriterSettings jsonWriterSettings = JsonWriterSettings.builder()
             .int64Converter((value, writer) -> writer.writeNumber(value.toString())).build();
 
@@ -43,18 +63,263 @@ public class ModelUtils {
         return Optional.ofNullable(time).map(t -> t.toInstant().toEpochMilli()).orElse(null);
     }
 
+    /**
+     * Converts the document to Jackson nodes without going through its JSON representation. Values are mapped as
+     * Jackson would parse the relaxed extended JSON of the document, int64 values fitting an int becoming int nodes.
+     */
     public static <T extends JsonNode> T documentToJsonNode(Document document, Class<T> type) {
-        return Optional.ofNullable(document).map(doc -> {
-            try {
-                return JsonUtils.getObjectMapper().readValue(doc.toJson(jsonWriterSettings), type);
-            } catch (JsonProcessingException ex) {
-                LOGGER.error("Error trying to parse Process Variables", ex);
-                return null;
-            }
-        }).orElse(null);
+        return Optional.ofNullable(document).map(doc -> type.cast(toJsonNode(doc))).orElse(null);
+    }
+
+    /**
+     * Same as {@link #documentToJsonNode(Document, Class)} for the document about to be read by the reader, e.g.
+     * one of a {@link org.bson.RawBsonDocument}.
+     */
+    public static ObjectNode readJsonNode(BsonReader reader) {
+        ObjectNode node = nodeFactory().objectNode();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            node.set(name, readValue(reader));
+        }
+        reader.readEndDocument();
+        return node;
+    }
+
+    private static JsonNode readValue(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case DOCUMENT:
+                return readJsonNode(reader);
+            case ARRAY:
+                ArrayNode array = nodeFactory().arrayNode();
+                reader.readStartArray();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    array.add(readValue(reader));
+                }
+                reader.readEndArray();
+                return array;
+            case STRING:
+                return nodeFactory().textNode(reader.readString());
+            case INT32:
+                return nodeFactory().numberNode(reader.readInt32());
+            case INT64:
+                return longNode(reader.readInt64());
+            case DOUBLE:
+                double value = reader.readDouble();
+                return Double.isFinite(value) ? nodeFactory().numberNode(value) : extendedJsonNode(new BsonDouble(value));
+            case BOOLEAN:
+                return nodeFactory().booleanNode(reader.readBoolean());
+            case NULL:
+                reader.readNull();
+                return nodeFactory().nullNode();
+            default:
+                return extendedJsonNode(BSON_VALUE_CODEC.decode(reader, DecoderContext.builder().build()));
+        }
+    }
+
+    /**
+     * Writes the document about to be read by the reader as JSON, with the same mapping as
+     * {@link #readJsonNode(BsonReader)} but without building the intermediate nodes. The top level field named
+     * {@code fromField} is written as {@code toField}.
+     */
+    public static void writeJson(BsonReader reader, JsonGenerator generator, String fromField, String toField) throws IOException {
+        generator.writeStartObject();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            generator.writeFieldName(name.equals(fromField) ? toField : name);
+            writeValue(reader, generator);
+        }
+        reader.readEndDocument();
+        generator.writeEndObject();
+    }
+
+    private static void writeValue(BsonReader reader, JsonGenerator generator) throws IOException {
+        switch (reader.getCurrentBsonType()) {
+            case DOCUMENT:
+                writeJson(reader, generator, null, null);
+                break;
+            case ARRAY:
+                generator.writeStartArray();
+                reader.readStartArray();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    writeValue(reader, generator);
+                }
+                reader.readEndArray();
+                generator.writeEndArray();
+                break;
+            case STRING:
+                generator.writeString(reader.readString());
+                break;
+            case INT32:
+                generator.writeNumber(reader.readInt32());
+                break;
+            case INT64:
+                generator.writeNumber(reader.readInt64());
+                break;
+            case DOUBLE:
+                double value = reader.readDouble();
+                if (Double.isFinite(value)) {
+                    generator.writeNumber(value);
+                } else {
+                    JsonUtils.getObjectMapper().writeTree(generator, extendedJsonNode(new BsonDouble(value)));
+                }
+                break;
+            case BOOLEAN:
+                generator.writeBoolean(reader.readBoolean());
+                break;
+            case NULL:
+                reader.readNull();
+                generator.writeNull();
+                break;
+            default:
+                JsonUtils.getObjectMapper().writeTree(generator, extendedJsonNode(BSON_VALUE_CODEC.decode(reader, DecoderContext.builder().build())));
+        }
+    }
+
+    private static JsonNode toJsonNode(Object value) {
+        if (value == null) {
+            return nodeFactory().nullNode();
+        } else if (value instanceof Map) {
+            ObjectNode node = nodeFactory().objectNode();
+            ((Map<?, ?>) value).forEach((k, v) -> node.set(k.toString(), toJsonNode(v)));
+            return node;
+        } else if (value instanceof List) {
+            ArrayNode array = nodeFactory().arrayNode();
+            ((List<?>) value).forEach(v -> array.add(toJsonNode(v)));
+            return array;
+        } else if (value instanceof String) {
+            return nodeFactory().textNode((String) value);
+        } else if (value instanceof Integer) {
+            return nodeFactory().numberNode((Integer) value);
+        } else if (value instanceof Long) {
+            return longNode((Long) value);
+        } else if (value instanceof Double && Double.isFinite((Double) value)) {
+            return nodeFactory().numberNode((Double) value);
+        } else if (value instanceof Boolean) {
+            return nodeFactory().booleanNode((Boolean) value);
+        }
+        return extendedJsonNode(value);
+    }
+
+    private static JsonNode longNode(long value) {
+        // int64 values are written as plain JSON numbers, which Jackson parses as ints when they fit
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? nodeFactory().numberNode((int) value) : nodeFactory().numberNode(value);
+    }
+
+    /**
+     * Dates, object ids, decimals and the other types without a JSON counterpart keep their relaxed extended JSON
+     * representation, e.g. {@code {"$oid": "..."}}.
+     */
+    private static JsonNode extendedJsonNode(Object value) {
+        try {
+            return JsonUtils.getObjectMapper().readTree(new Document(VALUE, value).toJson(jsonWriterSettings)).get(VALUE);
+        } catch (JsonProcessingException ex) {
+            LOGGER.error("Error trying to parse Process Variables", ex);
+            return nodeFactory().nullNode();
+        }
+    }
+
+    private static JsonNodeFactory nodeFactory() {
+        return JsonUtils.getObjectMapper().getNodeFactory();
     }
 
+    /**
+     * Converts the Jackson nodes to a document without going through their JSON representation. Values are mapped
+     * as {@link Document#parse(String)} would map the JSON of the node.
+     */
     public static Document jsonNodeToDocument(JsonNode jsonNode) {
-        return Optional.ofNullable(jsonNode).map(json -> Document.parse(json.toString())).orElse(null);
+        return jsonNodeToDocument(jsonNode, null);
+    }
+
+    /**
+     * Same as {@link #jsonNodeToDocument(JsonNode)}, skipping the given top level field so the node does not have to
+     * be copied to remove it.
+     */
+    public static Document jsonNodeToDocument(JsonNode jsonNode, String excludedField) {
+        return Optional.ofNullable(jsonNode).map(json -> {
+            Document document = new Document();
+            json.fields().forEachRemaining(field -> {
+                if (!field.getKey().equals(excludedField)) {
+                    document.append(field.getKey(), toValue(field.getValue()));
+                }
+            });
+            return document;
+        }).orElse(null);
+    }
+
+    /**
+     * Writes the Jackson node as a BSON value, mapping the values as {@link #jsonNodeToDocument(JsonNode)} does.
+     */
+    public static void writeJsonNode(BsonWriter writer, JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            writer.writeNull();
+        } else if (node.isObject()) {
+            if (isExtendedJson(node)) {
+                BSON_VALUE_CODEC.encode(writer, BsonDocument.parse(wrap(node)).get(VALUE), EncoderContext.builder().build());
+                return;
+            }
+            writer.writeStartDocument();
+            node.fields().forEachRemaining(field -> {
+                writer.writeName(field.getKey());
+                writeJsonNode(writer, field.getValue());
+            });
+            writer.writeEndDocument();
+        } else if (node.isArray()) {
+            writer.writeStartArray();
+            node.forEach(element -> writeJsonNode(writer, element));
+            writer.writeEndArray();
+        } else if (node.isIntegralNumber() && node.canConvertToInt()) {
+            writer.writeInt32(node.intValue());
+        } else if (node.isIntegralNumber() && node.canConvertToLong()) {
+            writer.writeInt64(node.longValue());
+        } else if (node.isFloatingPointNumber()) {
+            writer.writeDouble(node.doubleValue());
+        } else if (node.isBoolean()) {
+            writer.writeBoolean(node.booleanValue());
+        } else if (node.isTextual() || node.isBinary()) {
+            writer.writeString(node.asText());
+        } else {
+            BSON_VALUE_CODEC.encode(writer, BsonDocument.parse(wrap(node)).get(VALUE), EncoderContext.builder().build());
+        }
+    }
+
+    private static Object toValue(JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            return null;
+        } else if (node.isObject()) {
+            return isExtendedJson(node) ? parseValue(node) : jsonNodeToDocument(node);
+        } else if (node.isArray()) {
+            List<Object> list = new ArrayList<>(node.size());
+            node.forEach(element -> list.add(toValue(element)));
+            return list;
+        } else if (node.isIntegralNumber() && node.canConvertToInt()) {
+            return node.intValue();
+        } else if (node.isIntegralNumber() && node.canConvertToLong()) {
+            return node.longValue();
+        } else if (node.isFloatingPointNumber()) {
+            return node.doubleValue();
+        } else if (node.isBoolean()) {
+            return node.booleanValue();
+        } else if (node.isTextual() || node.isBinary()) {
+            return node.asText();
+        }
+        return parseValue(node);
+    }
+
+    /**
+     * Objects such as {@code {"$date": ...}} are extended JSON values that {@link Document#parse(String)} turns into
+     * their BSON type.
+     */
+    private static boolean isExtendedJson(JsonNode node) {
+        return node.size() > 0 && node.fieldNames().next().startsWith("$");
+    }
+
+    private static Object parseValue(JsonNode node) {
+        return Document.parse(wrap(node)).get(VALUE);
+    }
+
+    private static String wrap(JsonNode node) {
+        return "{\"" + VALUE + "\": " + node + "}";
     }
 }
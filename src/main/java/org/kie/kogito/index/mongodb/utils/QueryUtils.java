@@ -16,64 +16,158 @@
 
 package org.kie.kogito.index.mongodb.utils;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
 import io.quarkus.mongodb.panache.runtime.MongoOperations;
+import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.kie.kogito.index.query.AttributeFilter;
 
-import static java.lang.String.format;
+import static com.mongodb.client.model.Filters.all;
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.exists;
+import static com.mongodb.client.model.Filters.gt;
+import static com.mongodb.client.model.Filters.gte;
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Filters.lt;
+import static com.mongodb.client.model.Filters.lte;
+import static com.mongodb.client.model.Filters.or;
+import static com.mongodb.client.model.Filters.regex;
 import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 
 public class QueryUtils {
 
-    public static Function<String, String> FILTER_ATTRIBUTE_FUNCTION = attribute -> format("'%s'", "id".equalsIgnoreCase(attribute) ? MongoOperations.ID : attribute);
+    public static Function<String, String> FILTER_ATTRIBUTE_FUNCTION = attribute -> "id".equalsIgnoreCase(attribute) ? MongoOperations.ID : attribute;
 
-    public static Function<String, String> SORT_ATTRIBUTE_FUNCTION = attribute -> format("%s", "id".equalsIgnoreCase(attribute) ? MongoOperations.ID : attribute);
+    public static Function<String, String> SORT_ATTRIBUTE_FUNCTION = attribute -> "id".equalsIgnoreCase(attribute) ? MongoOperations.ID : attribute;
 
-    public static BiFunction<String, Object, String> FILTER_VALUE_AS_STRING_FUNCTION = (attribute, value) -> value instanceof String ? "'" + value + "'" : value.toString();
+    public static BiFunction<String, Object, Object> FILTER_VALUE_FUNCTION = (attribute, value) -> value;
 
-    public static Optional<String> generateQueryString(List<AttributeFilter> filters, Function<String, String> filterAttributeFunction, BiFunction<String, Object, String> filterValueFunction) {
-        return Optional.ofNullable(filters).map(fs -> format("{ %s }", fs.stream().map(f -> generateSingleQueryString(f, filterAttributeFunction, filterValueFunction)).collect(joining(", "))));
+    private QueryUtils() {
     }
 
-    private static <T> String generateSingleQueryString(AttributeFilter<T> filter, Function<String, String> filterAttributeFunction, BiFunction<String, Object, String> filterValueFunction) {
+    public static Optional<Bson> generateQuery(List<AttributeFilter> filters, Function<String, String> filterAttributeFunction, BiFunction<String, Object, Object> filterValueFunction) {
+        return Optional.ofNullable(filters).map(fs -> compileQuery(fs, filterAttributeFunction, filterValueFunction).apply(queryParameters(fs)));
+    }
+
+    /**
+     * Compiles the filters into a template only depending on their shape, see {@link #queryShape(List)}, the
+     * values are bound when applying the template to the parameters extracted with {@link #queryParameters(List)}.
+     */
+    public static Function<List<Object>, Bson> compileQuery(List<AttributeFilter> filters, Function<String, String> filterAttributeFunction, BiFunction<String, Object, Object> filterValueFunction) {
+        List<Function<Iterator<Object>, Bson>> compiled = compileAll(filters, filterAttributeFunction, filterValueFunction);
+        return parameters -> combine(bindAll(compiled, parameters.iterator()));
+    }
+
+    /**
+     * @return the attributes, conditions and nesting of the filters, regardless of their values
+     */
+    public static String queryShape(List<AttributeFilter> filters) {
+        return filters.stream().map(QueryUtils::singleQueryShape).collect(joining(","));
+    }
+
+    /**
+     * @return the values of the filters, in the order expected by the templates returned by {@link #compileQuery}
+     */
+    public static List<Object> queryParameters(List<AttributeFilter> filters) {
+        List<Object> parameters = new ArrayList<>();
+        filters.forEach(f -> addSingleQueryParameters(f, parameters));
+        return parameters;
+    }
+
+    private static Bson combine(List<Bson> queries) {
+        switch (queries.size()) {
+            case 0:
+                return new Document();
+            case 1:
+                return queries.get(0);
+            default:
+                return and(queries);
+        }
+    }
+
+    private static List<Function<Iterator<Object>, Bson>> compileAll(List<? extends AttributeFilter> filters, Function<String, String> filterAttributeFunction, BiFunction<String, Object, Object> filterValueFunction) {
+        return filters.stream().map(f -> compileSingleQuery(f, filterAttributeFunction, filterValueFunction)).collect(toList());
+    }
+
+    private static List<Bson> bindAll(List<Function<Iterator<Object>, Bson>> compiled, Iterator<Object> parameters) {
+        List<Bson> queries = new ArrayList<>(compiled.size());
+        for (Function<Iterator<Object>, Bson> query : compiled) {
+            queries.add(query.apply(parameters));
+        }
+        return queries;
+    }
+
+    private static String singleQueryShape(AttributeFilter<?> filter) {
+        switch (filter.getCondition()) {
+            case OR:
+            case AND:
+                return filter.getCondition() + "(" + queryShape((List<AttributeFilter>) filter.getValue()) + ")";
+            default:
+                return filter.getCondition() + ":" + filter.getAttribute();
+        }
+    }
+
+    private static void addSingleQueryParameters(AttributeFilter<?> filter, List<Object> parameters) {
+        switch (filter.getCondition()) {
+            case OR:
+            case AND:
+                ((List<AttributeFilter<?>>) filter.getValue()).forEach(f -> addSingleQueryParameters(f, parameters));
+                break;
+            case IS_NULL:
+            case NOT_NULL:
+                break;
+            default:
+                parameters.add(filter.getValue());
+        }
+    }
+
+    private static Function<Iterator<Object>, Bson> compileSingleQuery(AttributeFilter<?> filter, Function<String, String> filterAttributeFunction, BiFunction<String, Object, Object> filterValueFunction) {
+        String attribute = filterAttributeFunction.apply(filter.getAttribute());
+        Function<Object, Object> value = v -> filterValueFunction.apply(filter.getAttribute(), v);
         switch (filter.getCondition()) {
             case CONTAINS:
             case EQUAL:
-                return format("%s: %s", filterAttributeFunction.apply(filter.getAttribute()), filterValueFunction.apply(filter.getAttribute(), filter.getValue()));
+                return p -> eq(attribute, value.apply(p.next()));
             case LIKE:
-                return format("%s: { $regex: /^%s$/ }", filterAttributeFunction.apply(filter.getAttribute()), ((String) filter.getValue()).replaceAll("\\*", ".*"));
+                return p -> regex(attribute, "^" + ((String) p.next()).replaceAll("\\*", ".*") + "$");
             case IS_NULL:
-                return format("%s: { $exists: false }", filterAttributeFunction.apply(filter.getAttribute()));
+                return p -> exists(attribute, false);
             case NOT_NULL:
-                return format("%s: { $exists: true }", filterAttributeFunction.apply(filter.getAttribute()));
+                return p -> exists(attribute);
             case GT:
-                return format("%s: { $gt: %s }", filterAttributeFunction.apply(filter.getAttribute()), filterValueFunction.apply(filter.getAttribute(), filter.getValue()));
+                return p -> gt(attribute, value.apply(p.next()));
             case GTE:
-                return format("%s: { $gte: %s }", filterAttributeFunction.apply(filter.getAttribute()), filterValueFunction.apply(filter.getAttribute(), filter.getValue()));
+                return p -> gte(attribute, value.apply(p.next()));
             case LT:
-                return format("%s: { $lt: %s }", filterAttributeFunction.apply(filter.getAttribute()), filterValueFunction.apply(filter.getAttribute(), filter.getValue()));
+                return p -> lt(attribute, value.apply(p.next()));
             case LTE:
-                return format("%s: { $lte: %s }", filterAttributeFunction.apply(filter.getAttribute()), filterValueFunction.apply(filter.getAttribute(), filter.getValue()));
+                return p -> lte(attribute, value.apply(p.next()));
             case BETWEEN:
-                List<Object> value = (List<Object>) filter.getValue();
-                return format("$and: [ { %s: { $gte: %s } }, { %s: { $lte: %s } } ]", filterAttributeFunction.apply(filter.getAttribute()), filterValueFunction.apply(filter.getAttribute(), value.get(0)),
-                              filterAttributeFunction.apply(filter.getAttribute()), filterValueFunction.apply(filter.getAttribute(), value.get(1)));
+                return p -> {
+                    List<Object> range = (List<Object>) p.next();
+                    return and(gte(attribute, value.apply(range.get(0))), lte(attribute, value.apply(range.get(1))));
+                };
             case IN:
-                return format("%s: { $in: [ %s ] }", filterAttributeFunction.apply(filter.getAttribute()), ((List) filter.getValue()).stream().map(v -> filterValueFunction.apply(filter.getAttribute(), v)).collect(joining(", ")));
-            case CONTAINS_ALL:
-                return format("%s: { $all: [ %s ] }", filterAttributeFunction.apply(filter.getAttribute()), ((List) filter.getValue()).stream().map(v -> filterValueFunction.apply(filter.getAttribute(), v)).collect(joining(", ")));
             case CONTAINS_ANY:
-                return format("$or: [ %s ]", ((List) filter.getValue()).stream().map(v -> filterValueFunction.apply(filter.getAttribute(), v)).map(v -> format("{ %s: { $in: [ %s ] } }", filterAttributeFunction.apply(filter.getAttribute()), v)).collect(joining(", ")));
+                return p -> in(attribute, ((List<Object>) p.next()).stream().map(value).collect(toList()));
+            case CONTAINS_ALL:
+                return p -> all(attribute, ((List<Object>) p.next()).stream().map(value).collect(toList()));
             case OR:
-                return format("$or: [ %s ]", ((List<AttributeFilter<?>>) filter.getValue()).stream().map(f -> format("{ %s }", generateSingleQueryString(f, filterAttributeFunction, filterValueFunction))).collect(joining(", ")));
+                List<Function<Iterator<Object>, Bson>> anyOf = compileAll((List<AttributeFilter<?>>) filter.getValue(), filterAttributeFunction, filterValueFunction);
+                return p -> or(bindAll(anyOf, p));
             case AND:
-                return format("$and: [ %s ]", ((List<AttributeFilter<?>>) filter.getValue()).stream().map(f -> format("{ %s }", generateSingleQueryString(f, filterAttributeFunction, filterValueFunction))).collect(joining(", ")));
+                List<Function<Iterator<Object>, Bson>> allOf = compileAll((List<AttributeFilter<?>>) filter.getValue(), filterAttributeFunction, filterValueFunction);
+                return p -> and(bindAll(allOf, p));
             default:
-                return null;
+                throw new IllegalArgumentException("Unsupported filter condition: " + filter.getCondition());
         }
     }
 }
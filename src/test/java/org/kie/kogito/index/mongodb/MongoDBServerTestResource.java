@@ -16,12 +16,15 @@
 
 package org.kie.kogito.index.mongodb;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.Map;
 
 import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.Container.ExecResult;
 import org.testcontainers.containers.FixedHostPortGenericContainer;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.output.Slf4jLogConsumer;
@@ -30,6 +33,7 @@ import org.testcontainers.containers.wait.strategy.Wait;
 public class MongoDBServerTestResource implements QuarkusTestResourceLifecycleManager {
 
     private static final String MONGODB_VERSION = System.getProperty("mongodb.version");
+    private static final String REPLICA_SET = "rs0";
     private static final Logger LOGGER = LoggerFactory.getLogger(MongoDBServerTestResource.class);
     private GenericContainer mongoDB;
 
@@ -39,11 +43,26 @@ public class MongoDBServerTestResource implements QuarkusTestResourceLifecycleMa
             throw new RuntimeException("Please define a valid MongoDB image version in system property mongodb.version");
         }
         LOGGER.info("Using MongoDB image version: {}", MONGODB_VERSION);
+        // a single node replica set, change streams are not available on standalone servers
         mongoDB = new FixedHostPortGenericContainer("mongo:" + MONGODB_VERSION)
                 .withFixedExposedPort(27017, 27017)
+                .withCommand("--replSet", REPLICA_SET)
                 .withLogConsumer(new Slf4jLogConsumer(LOGGER))
-                .waitingFor(Wait.forLogMessage(".*build index done.*", 1));
+                .waitingFor(Wait.forLogMessage("(?i).*waiting for connections.*", 1));
         mongoDB.start();
+        try {
+            ExecResult result = mongoDB.execInContainer("mongo", "--quiet", "--eval",
+                                                        "rs.initiate({_id: '" + REPLICA_SET + "', members: [{_id: 0, host: 'localhost:27017'}]}); " +
+                                                                "while (!db.isMaster().ismaster) { sleep(100); }");
+            if (result.getExitCode() != 0) {
+                throw new IllegalStateException("Error initiating the MongoDB replica set: " + result.getStderr());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
         return Collections.emptyMap();
     }
 
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.cache;
+
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.index.model.Job;
+import org.kie.kogito.index.model.ProcessInstance;
+import org.kie.kogito.index.model.ProcessInstanceState;
+import org.kie.kogito.index.mongodb.MongoDBServerTestResource;
+import org.kie.kogito.index.mongodb.TestUtils;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@QuarkusTest
+@QuarkusTestResource(MongoDBServerTestResource.class)
+public class BatchIngestionServiceTest {
+
+    static final String COALESCING = "kogito.data-index.mongodb.ingestion.coalescing.ratio";
+    static final String REJECTED = "kogito.data-index.mongodb.ingestion.rejected";
+    static final String OPERATIONS = "kogito.data-index.mongodb.operations";
+
+    @Inject
+    BatchIngestionService ingestionService;
+
+    @Inject
+    ProcessInstanceCache processInstanceCache;
+
+    @Inject
+    JobCache jobCache;
+
+    @Inject
+    MeterRegistry registry;
+
+    @AfterEach
+    void tearDown() {
+        processInstanceCache.clear();
+        jobCache.clear();
+    }
+
+    @Test
+    void testIngest() {
+        String processInstanceId = UUID.randomUUID().toString();
+        ZonedDateTime now = ZonedDateTime.now();
+        ProcessInstance completed = processInstance(processInstanceId, ProcessInstanceState.COMPLETED, now);
+        ProcessInstance active = processInstance(processInstanceId, ProcessInstanceState.ACTIVE, now.minusSeconds(1));
+        Job job = TestUtils.createJob(UUID.randomUUID().toString(), processInstanceId, "travels", null, null, "SCHEDULED");
+
+        String collection = processInstanceCache.getCollection().getNamespace().getCollectionName();
+        // meters are shared by the tests, only what this ingestion records is checked
+        long ratioCount = summaryCount(collection);
+        double ratioTotal = summaryTotal(collection);
+        long ingestCount = timerCount(collection);
+
+        assertThat(ingestionService.ingest(asList(completed, active, job))).isEqualTo(2);
+        assertThat(processInstanceCache.get(processInstanceId).getState()).isEqualTo(ProcessInstanceState.COMPLETED.ordinal());
+        assertThat(jobCache.get(job.getId())).isNotNull();
+
+        assertThat(summaryCount(collection) - ratioCount).isEqualTo(1);
+        assertThat(summaryTotal(collection) - ratioTotal).isEqualTo(0.5);
+        assertThat(timerCount(collection) - ingestCount).isEqualTo(1);
+    }
+
+    @Test
+    void testIngestRejectsEventsWithoutId() {
+        String processInstanceId = UUID.randomUUID().toString();
+        ProcessInstance withoutId = processInstance(null, ProcessInstanceState.ACTIVE, ZonedDateTime.now());
+        String collection = processInstanceCache.getCollection().getNamespace().getCollectionName();
+        double rejected = rejectedCount(collection);
+
+        assertThat(ingestionService.ingest(asList(withoutId, processInstance(processInstanceId, ProcessInstanceState.ACTIVE, null)))).isEqualTo(1);
+        assertThat(processInstanceCache.get(processInstanceId)).isNotNull();
+
+        assertThat(rejectedCount(collection) - rejected).isEqualTo(1);
+    }
+
+    @Test
+    void testIngestUnsupportedEvent() {
+        assertThatThrownBy(() -> ingestionService.ingest(asList("event"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testCoalesce() {
+        String processInstanceId = UUID.randomUUID().toString();
+        ZonedDateTime now = ZonedDateTime.now();
+        ProcessInstance first = processInstance(processInstanceId, ProcessInstanceState.ACTIVE, now);
+        ProcessInstance second = processInstance(processInstanceId, ProcessInstanceState.COMPLETED, now);
+        ProcessInstance withoutLastUpdate = processInstance(processInstanceId, ProcessInstanceState.ERROR, null);
+
+        Map<String, ProcessInstance> latest = BatchIngestionService.coalesce(asList(first, second, withoutLastUpdate), ProcessInstance::getId, ProcessInstance::getLastUpdate);
+        assertThat(latest).containsOnlyKeys(processInstanceId).containsEntry(processInstanceId, second);
+    }
+
+    private long summaryCount(String collection) {
+        return Optional.ofNullable(registry.find(COALESCING).tag("collection", collection).summary()).map(DistributionSummary::count).orElse(0L);
+    }
+
+    private double summaryTotal(String collection) {
+        return Optional.ofNullable(registry.find(COALESCING).tag("collection", collection).summary()).map(DistributionSummary::totalAmount).orElse(0d);
+    }
+
+    private long timerCount(String collection) {
+        return Optional.ofNullable(registry.find(OPERATIONS).tags("collection", collection, "operation", "ingest").timer()).map(Timer::count).orElse(0L);
+    }
+
+    private double rejectedCount(String collection) {
+        return Optional.ofNullable(registry.find(REJECTED).tag("collection", collection).counter()).map(Counter::count).orElse(0d);
+    }
+
+    private static ProcessInstance processInstance(String id, ProcessInstanceState state, ZonedDateTime lastUpdate) {
+        ProcessInstance processInstance = TestUtils.createProcessInstance(id, "travels", null, null, state.ordinal());
+        processInstance.setLastUpdate(lastUpdate);
+        return processInstance;
+    }
+}
@@ -19,6 +19,8 @@ package org.kie.kogito.index.mongodb.cache;
 import org.junit.Assert;
 import org.kie.kogito.index.cache.Cache;
 
+import static java.util.Collections.singletonList;
+
 class CacheTestBase {
 
     static <K, V> void testCache(Cache<K, V> cache, K key, V value1, V value2) {
@@ -33,4 +35,38 @@ class CacheTestBase {
         cache.remove(key);
         Assert.assertNull(cache.get(key));
     }
+
+    static <K, V> void testCacheWithoutOldValue(AbstractCache<K, V, ?> cache, K key, V value1, V value2) {
+        Assert.assertNull(cache.get(key));
+
+        cache.set(key, value1);
+        Assert.assertEquals(value1, cache.get(key));
+
+        Assert.assertEquals(value1, cache.put(key, value2));
+        Assert.assertEquals(value2, cache.get(key));
+
+        cache.set(key, value1);
+        Assert.assertEquals(value1, cache.get(key));
+
+        Assert.assertTrue(cache.delete(key));
+        Assert.assertNull(cache.get(key));
+        Assert.assertFalse(cache.delete(key));
+    }
+
+    static <K, V> void testRemoveAllWithWriteBehind(AbstractCache<K, V, ?> cache, K key, V value) {
+        cache.writeBehindEnabled = true;
+        cache.initWriteBehind();
+        try {
+            cache.put(key, value);
+            Assert.assertEquals(value, cache.get(key));
+
+            Assert.assertEquals(0, cache.removeAll(singletonList(key)));
+            cache.flush();
+            Assert.assertNull(cache.get(key));
+        } finally {
+            cache.drain();
+            cache.writeBehindBuffer = null;
+            cache.writeBehindEnabled = false;
+        }
+    }
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CheckpointTrackerTest {
+
+    @Test
+    void testCheckpointInOrder() {
+        List<BsonDocument> checkpoints = new ArrayList<>();
+        CheckpointTracker tracker = new CheckpointTracker("test", checkpoints::add);
+
+        CheckpointTracker.Position first = tracker.begin(token(1));
+        CheckpointTracker.Position second = tracker.begin(token(2));
+        tracker.advance(token(3));
+        assertThat(checkpoints).isEmpty();
+
+        tracker.complete(second);
+        assertThat(checkpoints).isEmpty();
+
+        tracker.complete(first);
+        assertThat(checkpoints).containsExactly(token(3));
+
+        tracker.advance(token(4));
+        assertThat(checkpoints).containsExactly(token(3), token(4));
+    }
+
+    @Test
+    void testSkipDroppedNotification() {
+        List<BsonDocument> checkpoints = new ArrayList<>();
+        CheckpointTracker tracker = new CheckpointTracker("test", checkpoints::add);
+
+        CheckpointTracker.Position first = tracker.begin(token(1));
+        CheckpointTracker.Position dropped = tracker.begin(token(2));
+        tracker.fail(dropped);
+        assertThat(checkpoints).isEmpty();
+
+        tracker.complete(first);
+        tracker.advance(token(3));
+        tracker.complete(tracker.begin(token(4)));
+
+        assertThat(checkpoints).containsExactly(token(2), token(3), token(4));
+    }
+
+    private static BsonDocument token(int value) {
+        return new BsonDocument("_data", new BsonInt32(value));
+    }
+}
@@ -17,12 +17,15 @@
 package org.kie.kogito.index.mongodb.cache;
 
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.quarkus.mongodb.panache.runtime.MongoOperations;
 import io.quarkus.test.common.QuarkusTestResource;
 import io.quarkus.test.junit.QuarkusTest;
+import org.bson.Document;
 import org.junit.Assert;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -31,6 +34,7 @@ import org.kie.kogito.index.cache.Cache;
 import org.kie.kogito.index.cache.CacheService;
 import org.kie.kogito.index.mongodb.MongoDBServerTestResource;
 import org.kie.kogito.index.mongodb.TestUtils;
+import org.kie.kogito.index.mongodb.model.DomainEntity;
 
 @QuarkusTest
 @QuarkusTestResource(MongoDBServerTestResource.class)
@@ -59,4 +63,61 @@ public class DomainCacheTest {
         ObjectNode node2 = TestUtils.createDomainData(processInstanceId, "Jane", "Toe");
         CacheTestBase.testCache(cache, processInstanceId, node1, node2);
     }
+
+    @Test
+    void testNearCacheReturnsCopies() {
+        String processInstanceId = UUID.randomUUID().toString();
+        DomainCache nearCache = (DomainCache) cacheService.getDomainModelCache("nearcache");
+        nearCache.nearCacheEnabled = true;
+        try {
+            nearCache.put(processInstanceId, TestUtils.createDomainData(processInstanceId, "John", "Doe"));
+            ObjectNode first = nearCache.get(processInstanceId);
+            first.put("mutated", true);
+
+            ObjectNode second = nearCache.get(processInstanceId);
+            Assert.assertNotSame(first, second);
+            Assert.assertFalse(second.has("mutated"));
+            Assert.assertTrue(nearCache.getNearCacheStats().isPresent());
+        } finally {
+            nearCache.clear();
+            nearCache.destroy();
+        }
+    }
+
+    @Test
+    void testNearCacheInvalidatedByOtherWriters() throws InterruptedException {
+        String processInstanceId = UUID.randomUUID().toString();
+        DomainCache nearCache = (DomainCache) cacheService.getDomainModelCache("nearcache");
+        nearCache.nearCacheEnabled = true;
+        try {
+            nearCache.put(processInstanceId, TestUtils.createDomainData(processInstanceId, "John", "Doe"));
+            Assert.assertEquals("John", nearCache.get(processInstanceId).get("traveller").get("firstName").asText());
+            Assert.assertEquals("John", nearCache.get(processInstanceId).get("traveller").get("firstName").asText());
+            Assert.assertTrue(nearCache.getNearCacheStats().get().hitCount() > 0);
+
+            // written as another node would, bypassing this cache
+            nearCache.getCollection().replaceOne(new Document(MongoOperations.ID, processInstanceId),
+                                                 DomainEntity.fromObjectNode(processInstanceId, TestUtils.createDomainData(processInstanceId, "Jane", "Toe")));
+            String firstName = null;
+            for (int i = 0; i < 600 && !"Jane".equals(firstName); i++) {
+                TimeUnit.MILLISECONDS.sleep(100);
+                firstName = nearCache.get(processInstanceId).get("traveller").get("firstName").asText();
+            }
+            Assert.assertEquals("Jane", firstName);
+        } finally {
+            nearCache.clear();
+            nearCache.destroy();
+        }
+    }
+
+    @Test
+    void testRemoveAllWithWriteBehind() {
+        String processInstanceId = UUID.randomUUID().toString();
+        DomainCache writeBehindCache = (DomainCache) cacheService.getDomainModelCache("writebehind");
+        try {
+            CacheTestBase.testRemoveAllWithWriteBehind(writeBehindCache, processInstanceId, TestUtils.createDomainData(processInstanceId, "John", "Doe"));
+        } finally {
+            writeBehindCache.clear();
+        }
+    }
 }
@@ -16,13 +16,22 @@
 
 package org.kie.kogito.index.mongodb.cache;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import javax.inject.Inject;
 
+import io.quarkus.mongodb.panache.runtime.MongoOperations;
 import io.quarkus.test.common.QuarkusTestResource;
 import io.quarkus.test.junit.QuarkusTest;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.bson.Document;
 import org.junit.Assert;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -32,6 +41,11 @@ import org.kie.kogito.index.cache.CacheService;
 import org.kie.kogito.index.model.Job;
 import org.kie.kogito.index.mongodb.MongoDBServerTestResource;
 import org.kie.kogito.index.mongodb.TestUtils;
+import org.kie.kogito.index.mongodb.metrics.MongoDBMetrics;
+import org.kie.kogito.index.mongodb.model.JobEntity;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
 
 @QuarkusTest
 @QuarkusTestResource(MongoDBServerTestResource.class)
@@ -40,6 +54,12 @@ public class JobCacheTest {
     @Inject
     CacheService cacheService;
 
+    @Inject
+    ListenerDispatcher listenerDispatcher;
+
+    @Inject
+    MongoDBMetrics metrics;
+
     Cache<String, Job> cache;
 
     @BeforeEach
@@ -62,4 +82,119 @@ public class JobCacheTest {
         Job job2 = TestUtils.createJob(jobId, processInstanceId, RandomStringUtils.randomAlphabetic(5), UUID.randomUUID().toString(), RandomStringUtils.randomAlphabetic(10), "SCHEDULED");
         CacheTestBase.testCache(cache, jobId, job1, job2);
     }
+
+    @Test
+    void testPutAllAndRemoveAll() {
+        String jobId1 = UUID.randomUUID().toString();
+        String jobId2 = UUID.randomUUID().toString();
+        String processInstanceId = UUID.randomUUID().toString();
+        Job job1 = TestUtils.createJob(jobId1, processInstanceId, RandomStringUtils.randomAlphabetic(5), UUID.randomUUID().toString(), RandomStringUtils.randomAlphabetic(10), "EXPECTED");
+        Job job2 = TestUtils.createJob(jobId2, processInstanceId, RandomStringUtils.randomAlphabetic(5), UUID.randomUUID().toString(), RandomStringUtils.randomAlphabetic(10), "SCHEDULED");
+        cache.put(jobId1, job1);
+
+        JobCache jobCache = (JobCache) cache;
+        CountDownLatch latch = new CountDownLatch(5);
+        List<Job> created = new CopyOnWriteArrayList<>();
+        List<Job> updated = new CopyOnWriteArrayList<>();
+        List<String> removed = new CopyOnWriteArrayList<>();
+        Consumer<Job> createdListener = job -> {
+            created.add(job);
+            latch.countDown();
+        };
+        Consumer<Job> updatedListener = job -> {
+            updated.add(job);
+            latch.countDown();
+        };
+        Consumer<String> removedListener = id -> {
+            removed.add(id);
+            latch.countDown();
+        };
+        jobCache.addObjectCreatedListener(createdListener);
+        jobCache.addObjectUpdatedListener(updatedListener);
+        jobCache.addObjectRemovedListener(removedListener);
+
+        Map<String, Job> jobs = new HashMap<>();
+        jobs.put(jobId1, job1);
+        jobs.put(jobId2, job2);
+        cache.putAll(jobs);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(job2, cache.get(jobId2));
+
+        String unknownId = UUID.randomUUID().toString();
+        Assert.assertEquals(2, jobCache.removeAll(asList(jobId1, jobId2, unknownId)));
+        Assert.assertTrue(cache.isEmpty());
+
+        // notifications of a same key are ordered, a removal of the unknown id would be delivered before its creation
+        Job job3 = TestUtils.createJob(unknownId, processInstanceId, RandomStringUtils.randomAlphabetic(5), UUID.randomUUID().toString(), RandomStringUtils.randomAlphabetic(10), "SCHEDULED");
+        cache.put(unknownId, job3);
+
+        Assert.assertTrue(latch.await(1, TimeUnit.MINUTES));
+        assertThat(created).containsExactlyInAnyOrder(job2, job3);
+        assertThat(updated).containsExactly(job1);
+        assertThat(removed).containsExactlyInAnyOrder(jobId1, jobId2);
+
+        jobCache.removeObjectCreatedListener(createdListener);
+        jobCache.removeObjectUpdatedListener(updatedListener);
+        jobCache.removeObjectRemovedListener(removedListener);
+    }
+
+    @Test
+    void testChangeStreamListeners() throws Exception {
+        // a second cache notified through the change stream, as the cache of another node would be
+        JobCache listened = new JobCache();
+        listened.listenerDispatcher = listenerDispatcher;
+        listened.metrics = metrics;
+        listened.changeStreamListeners = true;
+
+        String jobId = UUID.randomUUID().toString();
+        String processInstanceId = UUID.randomUUID().toString();
+        List<String> created = new CopyOnWriteArrayList<>();
+        List<String> updated = new CopyOnWriteArrayList<>();
+        List<String> removed = new CopyOnWriteArrayList<>();
+        CountDownLatch watching = new CountDownLatch(1);
+        CountDownLatch latch = new CountDownLatch(4);
+        listened.addObjectCreatedListener(job -> {
+            if (jobId.equals(job.getId())) {
+                created.add(job.getStatus());
+                latch.countDown();
+            } else {
+                watching.countDown();
+            }
+        });
+        listened.addObjectUpdatedListener(job -> {
+            if (jobId.equals(job.getId())) {
+                updated.add(job.getStatus());
+                latch.countDown();
+            }
+        });
+        listened.addObjectRemovedListener(id -> {
+            if (jobId.equals(id)) {
+                removed.add(id);
+                latch.countDown();
+            }
+        });
+        try {
+            // the change stream is opened asynchronously, jobs are created until one is notified
+            for (int i = 0; i < 600 && watching.getCount() > 0; i++) {
+                String otherId = UUID.randomUUID().toString();
+                cache.put(otherId, TestUtils.createJob(otherId, processInstanceId, "travels", null, null, "SCHEDULED"));
+                watching.await(100, TimeUnit.MILLISECONDS);
+            }
+            Assert.assertEquals(0, watching.getCount());
+
+            // written by the other cache, by the listened one, whose writes are not notified synchronously, and as is
+            cache.put(jobId, TestUtils.createJob(jobId, processInstanceId, "travels", null, null, "SCHEDULED"));
+            listened.put(jobId, TestUtils.createJob(jobId, processInstanceId, "travels", null, null, "EXECUTED"));
+            MongoOperations.mongoCollection(JobEntity.class).deleteOne(new Document(MongoOperations.ID, jobId));
+            // notifications of a same key are ordered, any duplicate would be delivered before this one
+            cache.put(jobId, TestUtils.createJob(jobId, processInstanceId, "travels", null, null, "RETRY"));
+
+            Assert.assertTrue(latch.await(1, TimeUnit.MINUTES));
+            assertThat(created).containsExactly("SCHEDULED", "RETRY");
+            assertThat(updated).containsExactly("EXECUTED");
+            assertThat(removed).containsExactly(jobId);
+        } finally {
+            listened.destroy();
+        }
+    }
 }
@@ -61,4 +61,12 @@ class ProcessInstanceCacheTest {
         ProcessInstance processInstance2 = TestUtils.createProcessInstance(processInstanceId, RandomStringUtils.randomAlphabetic(5), UUID.randomUUID().toString(), RandomStringUtils.randomAlphabetic(10), ProcessInstanceState.COMPLETED.ordinal());
         CacheTestBase.testCache(cache, processInstanceId, processInstance1, processInstance2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCacheWithoutOldValue() {
+        String processInstanceId = UUID.randomUUID().toString();
+        ProcessInstance processInstance1 = TestUtils.createProcessInstance(processInstanceId, RandomStringUtils.randomAlphabetic(5), UUID.randomUUID().toString(), RandomStringUtils.randomAlphabetic(10), ProcessInstanceState.ACTIVE.ordinal());
+        ProcessInstance processInstance2 = TestUtils.createProcessInstance(processInstanceId, RandomStringUtils.randomAlphabetic(5), UUID.randomUUID().toString(), RandomStringUtils.randomAlphabetic(10), ProcessInstanceState.COMPLETED.ordinal());
+        CacheTestBase.testCacheWithoutOldValue((ProcessInstanceCache) cache, processInstanceId, processInstance1, processInstance2);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kie.kogito.index.mongodb.cache;
+
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.changestream.FullDocument;
+import io.quarkus.mongodb.panache.runtime.MongoOperations;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.index.mongodb.MongoDBServerTestResource;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@QuarkusTest
+@QuarkusTestResource(MongoDBServerTestResource.class)
+public class ResumeTokenStoreTest {
+
+    @Inject
+    ResumeTokenStore resumeTokenStore;
+
+    MongoCollection<Document> collection;
+
+    @BeforeEach
+    void setUp() {
+        collection = MongoOperations.mongoDatabase(Document.class).getCollection("resumetokentest");
+    }
+
+    @AfterEach
+    void tearDown() {
+        collection.deleteMany(new Document());
+    }
+
+    @Test
+    void testResumeFromCheckpointAfterRestart() throws Exception {
+        String streamName = "test-" + UUID.randomUUID().toString();
+        BlockingQueue<Object> changes = new LinkedBlockingQueue<>();
+
+        ChangeStreamWatcher<Document> watcher = watch(streamName, changes);
+        collection.insertOne(new Document(MongoOperations.ID, "first"));
+        assertThat(changes.poll(1, TimeUnit.MINUTES)).isEqualTo("first");
+        watcher.close();
+        resumeTokenStore.flush();
+
+        // made while the stream is closed, only seen if the stream resumes from the checkpoint
+        collection.insertOne(new Document(MongoOperations.ID, "second"));
+
+        watcher = watch(streamName, changes);
+        try {
+            assertThat(changes.poll(1, TimeUnit.MINUTES)).isEqualTo("second");
+        } finally {
+            watcher.close();
+        }
+    }
+
+    @Test
+    void testIgnoreCheckpointsOfPreviousGenerations() {
+        String streamName = "test-" + UUID.randomUUID().toString();
+        long previous = resumeTokenStore.open(streamName);
+        long current = resumeTokenStore.open(streamName);
+
+        resumeTokenStore.checkpoint(streamName, current, token("current"));
+        resumeTokenStore.checkpoint(streamName, previous, token("previous"));
+        resumeTokenStore.flush();
+
+        assertThat(resumeTokenStore.load(streamName)).isEqualTo(token("current"));
+    }
+
+    private ChangeStreamWatcher<Document> watch(String streamName, BlockingQueue<Object> changes) throws InterruptedException {
+        long generation = resumeTokenStore.open(streamName);
+        CheckpointTracker checkpoints = new CheckpointTracker(streamName, token -> resumeTokenStore.checkpoint(streamName, generation, token));
+        CountDownLatch opened = new CountDownLatch(1);
+        ChangeStreamWatcher<Document> watcher = new ChangeStreamWatcher<>(streamName, collection, emptyList(), FullDocument.DEFAULT, change -> {
+            CheckpointTracker.Position position = checkpoints.begin(change.getResumeToken());
+            changes.add(ChangeStreamWatcher.documentKey(change));
+            checkpoints.complete(position);
+        }, opened::countDown);
+        watcher.resumeAfter(resumeTokenStore.load(streamName));
+        watcher.onResumeToken(checkpoints::advance);
+        watcher.start();
+        assertThat(opened.await(1, TimeUnit.MINUTES)).isTrue();
+        return watcher;
+    }
+
+    private static BsonDocument token(String value) {
+        return new BsonDocument("_data", new BsonString(value));
+    }
+}
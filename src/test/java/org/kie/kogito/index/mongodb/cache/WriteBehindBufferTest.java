@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.cache;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteBehindBufferTest {
+
+    @Test
+    void testCoalesceAndFlush() {
+        List<Map<String, String>> batches = new CopyOnWriteArrayList<>();
+        WriteBehindBuffer<String, String> buffer = new WriteBehindBuffer<>("test", 100, Duration.ofHours(1), batch -> {
+            batches.add(batch);
+            return Collections.emptyList();
+        });
+
+        buffer.put("1", "a");
+        assertThat(buffer.put("1", "b")).isEqualTo("a");
+        buffer.put("2", "c");
+        assertThat(buffer.get("1")).isEqualTo("b");
+        assertThat(buffer.size()).isEqualTo(2);
+
+        buffer.flush();
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).containsOnlyKeys("1", "2").containsEntry("1", "b");
+        assertThat(buffer.size()).isZero();
+        assertThat(buffer.get("1")).isNull();
+
+        buffer.put("3", "d");
+        assertThat(buffer.remove("3")).isEqualTo("d");
+        buffer.drain();
+        assertThat(batches).hasSize(1);
+    }
+
+    @Test
+    void testFlushOnMaxSize() throws Exception {
+        CompletableFuture<Map<String, String>> batch = new CompletableFuture<>();
+        WriteBehindBuffer<String, String> buffer = new WriteBehindBuffer<>("test", 2, Duration.ofHours(1), b -> {
+            batch.complete(b);
+            return Collections.emptyList();
+        });
+
+        buffer.put("1", "a");
+        buffer.put("2", "b");
+
+        assertThat(batch.get(1, TimeUnit.MINUTES)).containsOnlyKeys("1", "2");
+        buffer.drain();
+    }
+
+    @Test
+    void testRetryFailedEntries() {
+        List<Map<String, String>> batches = new CopyOnWriteArrayList<>();
+        WriteBehindBuffer<String, String> buffer = new WriteBehindBuffer<>("test", 100, Duration.ofHours(1), batch -> {
+            batches.add(batch);
+            return batches.size() == 1 ? Collections.singletonList("2") : Collections.emptyList();
+        });
+
+        buffer.put("1", "a");
+        buffer.put("2", "b");
+        buffer.flush();
+        assertThat(buffer.size()).isEqualTo(1);
+        assertThat(buffer.get("2")).isEqualTo("b");
+
+        buffer.flush();
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(1)).containsOnlyKeys("2");
+        assertThat(buffer.size()).isZero();
+        buffer.drain();
+    }
+
+    @Test
+    void testPutAfterDrain() {
+        List<Map<String, String>> batches = new CopyOnWriteArrayList<>();
+        WriteBehindBuffer<String, String> buffer = new WriteBehindBuffer<>("test", 100, Duration.ofHours(1), batch -> {
+            batches.add(batch);
+            return Collections.emptyList();
+        });
+        buffer.drain();
+
+        buffer.put("1", "a");
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).containsOnlyKeys("1");
+        assertThat(buffer.size()).isZero();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.codec;
+
+import java.util.UUID;
+
+import io.quarkus.mongodb.panache.runtime.MongoOperations;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.index.model.Job;
+import org.kie.kogito.index.model.ProcessInstance;
+import org.kie.kogito.index.model.ProcessInstanceError;
+import org.kie.kogito.index.model.ProcessInstanceState;
+import org.kie.kogito.index.model.UserTaskInstance;
+import org.kie.kogito.index.mongodb.MongoDBServerTestResource;
+import org.kie.kogito.index.mongodb.TestUtils;
+import org.kie.kogito.index.mongodb.model.JobEntity;
+import org.kie.kogito.index.mongodb.model.ProcessInstanceEntity;
+import org.kie.kogito.index.mongodb.model.UserTaskInstanceEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@QuarkusTest
+@QuarkusTestResource(MongoDBServerTestResource.class)
+public class ModelCodecTest {
+
+    @Test
+    void testProcessInstanceCodec() {
+        ProcessInstance processInstance = TestUtils.createProcessInstance(UUID.randomUUID().toString(), "travels", null, null, ProcessInstanceState.ERROR.ordinal());
+        processInstance.setError(new ProcessInstanceError("StartEvent_1", "Something went wrong"));
+
+        BsonDocument expected = encode(entityCodec(ProcessInstanceEntity.class), ProcessInstanceEntity.fromProcessInstance(processInstance));
+        ProcessInstanceCodec codec = new ProcessInstanceCodec();
+        assertThat(encode(codec, processInstance)).isEqualTo(expected);
+        assertThat(encode(codec, decode(codec, expected))).isEqualTo(expected);
+    }
+
+    @Test
+    void testLazyProcessInstanceCodec() {
+        ProcessInstance processInstance = TestUtils.createProcessInstance(UUID.randomUUID().toString(), "travels", null, null, ProcessInstanceState.ACTIVE.ordinal());
+
+        BsonDocument expected = encode(new ProcessInstanceCodec(), processInstance);
+        ProcessInstanceCodec codec = new ProcessInstanceCodec(true);
+        ProcessInstance decoded = decode(codec, expected);
+        assertThat(decoded).isInstanceOf(LazyProcessInstance.class);
+        assertThat(decoded.getId()).isEqualTo(processInstance.getId());
+        assertThat(decoded.getVariables()).isEqualTo(processInstance.getVariables());
+        assertThat(decoded.getNodes()).hasSameSizeAs(processInstance.getNodes());
+        assertThat(encode(codec, decoded)).isEqualTo(expected);
+    }
+
+    @Test
+    void testUserTaskInstanceCodec() {
+        UserTaskInstance userTaskInstance = TestUtils.createUserTaskInstance(UUID.randomUUID().toString(), UUID.randomUUID().toString(), "travels", null, null, "InProgress");
+
+        BsonDocument expected = encode(entityCodec(UserTaskInstanceEntity.class), UserTaskInstanceEntity.fromUserTaskInstance(userTaskInstance));
+        UserTaskInstanceCodec codec = new UserTaskInstanceCodec();
+        assertThat(encode(codec, userTaskInstance)).isEqualTo(expected);
+        assertThat(encode(codec, decode(codec, expected))).isEqualTo(expected);
+    }
+
+    @Test
+    void testJobCodec() {
+        Job job = TestUtils.createJob(UUID.randomUUID().toString(), UUID.randomUUID().toString(), "travels", null, null, "SCHEDULED");
+
+        BsonDocument expected = encode(entityCodec(JobEntity.class), JobEntity.fromJob(job));
+        JobCodec codec = new JobCodec();
+        assertThat(encode(codec, job)).isEqualTo(expected);
+        assertThat(encode(codec, decode(codec, expected))).isEqualTo(expected);
+    }
+
+    private static <T> Codec<T> entityCodec(Class<T> entityClass) {
+        return MongoOperations.mongoCollection(entityClass).getCodecRegistry().get(entityClass);
+    }
+
+    private static <T> BsonDocument encode(Codec<T> codec, T value) {
+        BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), value, EncoderContext.builder().build());
+        return document;
+    }
+
+    private static <T> T decode(Codec<T> codec, BsonDocument document) {
+        return codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.index;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.index.query.SortDirection;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.kie.kogito.index.mongodb.utils.QueryUtils.FILTER_ATTRIBUTE_FUNCTION;
+import static org.kie.kogito.index.query.QueryFilterFactory.and;
+import static org.kie.kogito.index.query.QueryFilterFactory.equalTo;
+import static org.kie.kogito.index.query.QueryFilterFactory.greaterThan;
+import static org.kie.kogito.index.query.QueryFilterFactory.in;
+import static org.kie.kogito.index.query.QueryFilterFactory.or;
+import static org.kie.kogito.index.query.QueryFilterFactory.orderBy;
+
+class DomainIndexAdvisorTest {
+
+    @Test
+    void testCandidateKeysFollowEqualitySortRange() {
+        BsonDocument keys = DomainIndexAdvisor.candidateKeys(
+                asList(greaterThan("flight.departure", "2020-01-01"), and(asList(equalTo("traveller.lastName", "Doe"), in("hotel.name", asList("a", "b"))))),
+                singletonList(orderBy("flight.arrival", SortDirection.DESC)),
+                FILTER_ATTRIBUTE_FUNCTION);
+
+        assertThat(keys).isEqualTo(BsonDocument.parse("{\"traveller.lastName\": 1, \"hotel.name\": 1, \"flight.arrival\": -1, \"flight.departure\": 1}"));
+        assertThat(keys.keySet()).containsExactly("traveller.lastName", "hotel.name", "flight.arrival", "flight.departure");
+    }
+
+    @Test
+    void testCandidateKeysIgnoreIdAndOr() {
+        assertThat(DomainIndexAdvisor.candidateKeys(singletonList(equalTo("id", "1")), null, FILTER_ATTRIBUTE_FUNCTION)).isEmpty();
+        assertThat(DomainIndexAdvisor.candidateKeys(singletonList(or(asList(equalTo("a", "1"), equalTo("b", "2")))), null, FILTER_ATTRIBUTE_FUNCTION)).isEmpty();
+    }
+}
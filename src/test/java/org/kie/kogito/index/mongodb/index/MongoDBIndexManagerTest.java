@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
+import io.quarkus.mongodb.panache.runtime.MongoOperations;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import org.bson.Document;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.index.mongodb.MongoDBServerTestResource;
+import org.kie.kogito.index.mongodb.model.JobEntity;
+
+import static com.mongodb.client.model.Indexes.ascending;
+import static java.util.Arrays.asList;
+
+@QuarkusTest
+@QuarkusTestResource(MongoDBServerTestResource.class)
+public class MongoDBIndexManagerTest {
+
+    @Inject
+    MongoDBIndexManager indexManager;
+
+    @Test
+    void testProvision() {
+        indexManager.provision();
+
+        MongoDBIndexManager.DECLARED_INDEXES.forEach((entityClass, definitions) -> {
+            List<String> names = indexNames(MongoOperations.mongoCollection(entityClass).withDocumentClass(Document.class));
+            definitions.forEach(definition -> Assert.assertTrue(names.contains(definition.getIndexName())));
+        });
+    }
+
+    @Test
+    void testReconcile() {
+        MongoCollection<Document> collection = MongoOperations.mongoCollection(JobEntity.class).withDocumentClass(Document.class);
+        List<IndexDefinition> declared = MongoDBIndexManager.DECLARED_INDEXES.get(JobEntity.class);
+        indexManager.reconcile(collection, declared, false);
+        collection.dropIndex("kogito_processInstanceId_1");
+        collection.createIndex(ascending("retries"));
+        collection.createIndex(ascending("priority"), new IndexOptions().name("kogito_priority_1"));
+
+        indexManager.reconcile(collection, declared, false);
+        List<String> names = indexNames(collection);
+        Assert.assertTrue(names.contains("kogito_processInstanceId_1"));
+        Assert.assertTrue(names.contains("retries_1"));
+        Assert.assertTrue(names.contains("kogito_priority_1"));
+
+        indexManager.reconcile(collection, declared, true);
+        names = indexNames(collection);
+        Assert.assertTrue(names.contains("kogito_processInstanceId_1"));
+        // only the undeclared indexes created by the manager are dropped
+        Assert.assertTrue(names.contains("retries_1"));
+        Assert.assertFalse(names.contains("kogito_priority_1"));
+        collection.dropIndex("retries_1");
+    }
+
+    @Test
+    void testIncludedIndexes() {
+        Map<String, List<IndexDefinition>> included = MongoDBIndexManager.includedIndexes(asList("travels_domain.traveller.lastName", "jobs.retries", "invalid", "jobs."));
+        Assert.assertEquals(2, included.size());
+        Assert.assertEquals("kogito_traveller.lastName_1", included.get("travels_domain").get(0).getIndexName());
+
+        MongoCollection<Document> collection = MongoOperations.mongoCollection(JobEntity.class).withDocumentClass(Document.class);
+        List<IndexDefinition> declared = new ArrayList<>(MongoDBIndexManager.DECLARED_INDEXES.get(JobEntity.class));
+        declared.addAll(included.get("jobs"));
+        indexManager.reconcile(collection, declared, false);
+        Assert.assertTrue(indexNames(collection).contains("kogito_retries_1"));
+
+        indexManager.reconcile(collection, MongoDBIndexManager.DECLARED_INDEXES.get(JobEntity.class), true);
+        Assert.assertFalse(indexNames(collection).contains("kogito_retries_1"));
+    }
+
+    private static List<String> indexNames(MongoCollection<Document> collection) {
+        List<String> names = new ArrayList<>();
+        collection.listIndexes().forEach(index -> names.add(index.getString("name")));
+        return names;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.metrics;
+
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.index.cache.Cache;
+import org.kie.kogito.index.cache.CacheService;
+import org.kie.kogito.index.model.Job;
+import org.kie.kogito.index.mongodb.MongoDBServerTestResource;
+import org.kie.kogito.index.mongodb.TestUtils;
+
+@QuarkusTest
+@QuarkusTestResource(MongoDBServerTestResource.class)
+public class MongoDBMetricsTest {
+
+    @Inject
+    CacheService cacheService;
+
+    @Inject
+    MeterRegistry registry;
+
+    Cache<String, Job> cache;
+
+    @BeforeEach
+    void setUp() {
+        this.cache = cacheService.getJobsCache();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.clear();
+    }
+
+    @Test
+    void testCacheAndQueryMeters() {
+        String jobId = UUID.randomUUID().toString();
+        cache.put(jobId, TestUtils.createJob(jobId, UUID.randomUUID().toString(), "travels", null, null, "SCHEDULED"));
+        cache.get(jobId);
+        cache.query().execute();
+        cache.remove(jobId);
+
+        for (String operation : new String[]{"put", "get", "query", "remove"}) {
+            Assert.assertNotNull(operation, registry.find(MongoDBMetrics.OPERATIONS).tags(MongoDBMetrics.COLLECTION, "jobs", MongoDBMetrics.OPERATION, operation).timer());
+        }
+        for (String type : new String[]{"created", "removed"}) {
+            Assert.assertNotNull(type, registry.find(MongoDBMetrics.EVENTS).tags(MongoDBMetrics.COLLECTION, "jobs", MongoDBMetrics.TYPE, type).counter());
+        }
+        // recorded by the codec for the get and the query
+        Assert.assertTrue(registry.get(MongoDBMetrics.DECODE).tag(MongoDBMetrics.COLLECTION, "jobs").timer().count() >= 2);
+        Assert.assertNotNull(registry.find(MongoDBMetrics.RESULTS).tag(MongoDBMetrics.COLLECTION, "jobs").summary());
+    }
+}
@@ -18,10 +18,14 @@
 
 package org.kie.kogito.index.mongodb.query;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
 import java.util.UUID;
 
 import javax.inject.Inject;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.quarkus.test.common.QuarkusTestResource;
 import io.quarkus.test.junit.QuarkusTest;
@@ -33,10 +37,12 @@ import org.kie.kogito.index.cache.Cache;
 import org.kie.kogito.index.cache.CacheService;
 import org.kie.kogito.index.mongodb.MongoDBServerTestResource;
 import org.kie.kogito.index.mongodb.TestUtils;
+import org.kie.kogito.index.mongodb.utils.JsonUtils;
 import org.kie.kogito.index.query.SortDirection;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.kie.kogito.index.mongodb.query.QueryTestBase.assertWithObjectNode;
 import static org.kie.kogito.index.mongodb.query.QueryTestBase.assertWithObjectNodeInOrder;
 import static org.kie.kogito.index.mongodb.query.QueryTestBase.queryAndAssert;
@@ -110,4 +116,23 @@ public class DomainQueryTest {
         queryAndAssert(assertWithObjectNodeInOrder(), cache, null, null, 1, 1, processInstanceId2);
         queryAndAssert(assertWithObjectNodeInOrder(), cache, null, asList(orderBy("traveller.firstName", SortDirection.DESC), orderBy("traveller.lastName", SortDirection.ASC)), 1, 1, processInstanceId2);
     }
+
+    @Test
+    void testWriteJson() throws IOException {
+        String processInstanceId1 = UUID.randomUUID().toString();
+        String processInstanceId2 = UUID.randomUUID().toString();
+        cache.put(processInstanceId1, TestUtils.createDomainData(processInstanceId1, "John", "Doe"));
+        cache.put(processInstanceId2, TestUtils.createDomainData(processInstanceId2, "Jane", "Toe"));
+
+        DomainQuery query = (DomainQuery) cache.query();
+        query.sort(singletonList(orderBy("traveller.firstName", SortDirection.ASC)));
+        List<ObjectNode> expected = query.execute();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(query.writeJson(out)).isEqualTo(2);
+        JsonNode json = JsonUtils.getObjectMapper().readTree(out.toByteArray());
+        assertThat(json).containsExactlyElementsOf(expected);
+        assertThat(json.get(0).get("id").asText()).isEqualTo(processInstanceId2);
+        assertThat(json.get(0).has("_id")).isFalse();
+    }
 }
@@ -18,15 +18,28 @@
 
 package org.kie.kogito.index.mongodb.query;
 
+import java.nio.ByteBuffer;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
 import io.quarkus.test.common.QuarkusTestResource;
 import io.quarkus.test.junit.QuarkusTest;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
 import org.junit.Assert;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.kie.kogito.index.cache.Cache;
@@ -37,6 +50,7 @@ import org.kie.kogito.index.mongodb.TestUtils;
 import org.kie.kogito.index.query.SortDirection;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.kie.kogito.index.model.ProcessInstanceState.ACTIVE;
 import static org.kie.kogito.index.model.ProcessInstanceState.COMPLETED;
@@ -67,6 +81,9 @@ public class ProcessInstanceQueryTest {
     @Inject
     CacheService cacheService;
 
+    @Inject
+    QueryPlanCache queryPlanCache;
+
     Cache<String, ProcessInstance> cache;
 
     @BeforeEach
@@ -114,4 +131,164 @@ public class ProcessInstanceQueryTest {
         queryAndAssert(assertWithIdInOrder(), cache, null, null, 1, 1, subProcessInstanceId);
         queryAndAssert(assertWithIdInOrder(), cache, null, asList(orderBy("processId", SortDirection.ASC), orderBy("state", SortDirection.ASC)), 1, 1, subProcessInstanceId);
     }
+
+    @Test
+    void testQuotedValues() {
+        String processInstanceId = UUID.randomUUID().toString();
+        ProcessInstance processInstance = TestUtils.createProcessInstance(processInstanceId, "travels", null, null, ACTIVE.ordinal());
+        processInstance.setBusinessKey("O'Neil \"quoted\" }");
+        cache.put(processInstanceId, processInstance);
+
+        queryAndAssert(assertWithId(), cache, singletonList(equalTo("businessKey", "O'Neil \"quoted\" }")), null, null, null, processInstanceId);
+        queryAndAssert(assertWithId(), cache, asList(equalTo("state", ACTIVE.ordinal()), equalTo("state", COMPLETED.ordinal())), null, null, null);
+        queryAndAssert(assertWithId(), cache, singletonList(equalTo("state", String.valueOf(ACTIVE.ordinal()))), null, null, null, processInstanceId);
+    }
+
+    @Test
+    void testQueryPlanCache() {
+        String processInstanceId = UUID.randomUUID().toString();
+        String subProcessInstanceId = UUID.randomUUID().toString();
+        cache.put(processInstanceId, TestUtils.createProcessInstance(processInstanceId, "travels", null, null, ACTIVE.ordinal()));
+        cache.put(subProcessInstanceId, TestUtils.createProcessInstance(subProcessInstanceId, "travels_sub", processInstanceId, "travels", COMPLETED.ordinal()));
+
+        queryAndAssert(assertWithId(), cache, singletonList(or(asList(equalTo("state", ACTIVE.ordinal()), in("id", singletonList(subProcessInstanceId))))), null, null, null, processInstanceId, subProcessInstanceId);
+        long hits = queryPlanCache.getStats().hitCount();
+        queryAndAssert(assertWithId(), cache, singletonList(or(asList(equalTo("state", COMPLETED.ordinal()), in("id", singletonList(processInstanceId))))), null, null, null, processInstanceId, subProcessInstanceId);
+        queryAndAssert(assertWithId(), cache, singletonList(or(asList(equalTo("state", COMPLETED.ordinal()), in("id", emptyList())))), null, null, null, subProcessInstanceId);
+        Assert.assertEquals(hits + 2, queryPlanCache.getStats().hitCount());
+    }
+
+    @Test
+    void testKeysetPagination() {
+        List<ProcessInstance> instances = new ArrayList<>();
+        for (String processId : asList("a", "a", "b", "b", "c")) {
+            String processInstanceId = UUID.randomUUID().toString();
+            ProcessInstance processInstance = TestUtils.createProcessInstance(processInstanceId, processId, null, null, ACTIVE.ordinal());
+            cache.put(processInstanceId, processInstance);
+            instances.add(processInstance);
+        }
+        String[] expected = instances.stream()
+                .sorted(Comparator.comparing(ProcessInstance::getProcessId, Comparator.reverseOrder()).thenComparing(ProcessInstance::getId))
+                .map(ProcessInstance::getId).toArray(String[]::new);
+
+        List<ProcessInstance> results = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ProcessInstanceQuery query = (ProcessInstanceQuery) cache.query();
+            query.filter(singletonList(equalTo("state", ACTIVE.ordinal()))).sort(singletonList(orderBy("processId", SortDirection.DESC))).limit(2);
+            Page<ProcessInstance> page = query.after(cursor).executePage();
+            results.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertWithIdInOrder().accept(results, expected);
+        Assert.assertEquals(3, pages);
+    }
+
+    @Test
+    void testExecutePageWithCursorOfAnotherSort() {
+        for (int i = 0; i < 3; i++) {
+            String processInstanceId = UUID.randomUUID().toString();
+            cache.put(processInstanceId, TestUtils.createProcessInstance(processInstanceId, "travels", null, null, ACTIVE.ordinal()));
+        }
+
+        ProcessInstanceQuery query = (ProcessInstanceQuery) cache.query();
+        query.sort(singletonList(orderBy("start", SortDirection.ASC))).limit(1);
+        String cursor = query.executePage().getNextCursor();
+        Assert.assertNotNull(cursor);
+
+        ProcessInstanceQuery descending = (ProcessInstanceQuery) cache.query();
+        descending.sort(singletonList(orderBy("start", SortDirection.DESC))).limit(1);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> descending.after(cursor).executePage());
+    }
+
+    @Test
+    void testExecutePageWithInvalidCursor() {
+        ByteBuffer buffer = new RawBsonDocument(new BsonDocument("f", new BsonInt32(1)), new BsonDocumentCodec()).getByteBuffer().asNIO();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        for (String cursor : new String[]{"not a cursor!", "AAAA", Base64.getUrlEncoder().encodeToString(bytes)}) {
+            ProcessInstanceQuery query = (ProcessInstanceQuery) cache.query();
+            query.sort(singletonList(orderBy("start", SortDirection.ASC))).limit(1);
+            IllegalArgumentException ex = Assertions.assertThrows(IllegalArgumentException.class, () -> query.after(cursor).executePage());
+            Assert.assertTrue(ex.getMessage().startsWith("Invalid cursor"));
+        }
+    }
+
+    @Test
+    void testStream() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String processInstanceId = UUID.randomUUID().toString();
+            cache.put(processInstanceId, TestUtils.createProcessInstance(processInstanceId, "travels", null, null, ACTIVE.ordinal()));
+            ids.add(processInstanceId);
+        }
+
+        ProcessInstanceQuery query = (ProcessInstanceQuery) cache.query();
+        query.batchSize(2).filter(singletonList(equalTo("processId", "travels")));
+        try (Stream<ProcessInstance> stream = query.stream()) {
+            assertWithId().accept(stream.collect(Collectors.toList()), ids.toArray(new String[0]));
+        }
+    }
+
+    @Test
+    void testProjection() {
+        String processInstanceId = UUID.randomUUID().toString();
+        cache.put(processInstanceId, TestUtils.createProcessInstance(processInstanceId, "travels", null, null, ACTIVE.ordinal()));
+
+        ProcessInstanceQuery query = (ProcessInstanceQuery) cache.query();
+        query.project(asList("processId", "state")).filter(singletonList(equalTo("id", processInstanceId)));
+        List<ProcessInstance> results = query.execute();
+
+        Assert.assertEquals(1, results.size());
+        ProcessInstance processInstance = results.get(0);
+        Assert.assertEquals(processInstanceId, processInstance.getId());
+        Assert.assertEquals("travels", processInstance.getProcessId());
+        Assert.assertEquals(Integer.valueOf(ACTIVE.ordinal()), processInstance.getState());
+        Assert.assertNull(processInstance.getVariables());
+        Assert.assertNull(processInstance.getNodes());
+    }
+
+    @Test
+    void testCount() {
+        for (String processId : asList("counted", "counted", "counted", "other")) {
+            String processInstanceId = UUID.randomUUID().toString();
+            cache.put(processInstanceId, TestUtils.createProcessInstance(processInstanceId, processId, null, null, ACTIVE.ordinal()));
+        }
+
+        ProcessInstanceQuery query = (ProcessInstanceQuery) cache.query();
+        query.filter(singletonList(equalTo("processId", "counted"))).limit(2);
+        Assert.assertEquals(3, query.count());
+
+        Page<ProcessInstance> page = query.executeWithCount();
+        Assert.assertEquals(2, page.getItems().size());
+        Assert.assertEquals(Long.valueOf(3), page.getTotal());
+
+        Assert.assertEquals(4, ((ProcessInstanceQuery) cache.query()).count());
+    }
+
+    @Test
+    void testAggregate() {
+        for (String processId : asList("travels", "travels", "travels", "hotels")) {
+            String processInstanceId = UUID.randomUUID().toString();
+            cache.put(processInstanceId, TestUtils.createProcessInstance(processInstanceId, processId, null, null, ACTIVE.ordinal()));
+        }
+        String completedId = UUID.randomUUID().toString();
+        cache.put(completedId, TestUtils.createProcessInstance(completedId, "travels", null, null, COMPLETED.ordinal()));
+
+        ProcessInstanceQuery query = (ProcessInstanceQuery) cache.query();
+        query.filter(singletonList(in("processId", asList("travels", "hotels")))).sort(asList(orderBy("total", SortDirection.DESC), orderBy("processId", SortDirection.ASC)));
+        List<Map<String, Object>> results = query.aggregate(asList("processId", "state"), asList(Aggregation.count("total"), Aggregation.max("start", "lastStart")));
+
+        Assert.assertEquals(3, results.size());
+        Map<String, Object> first = results.get(0);
+        Assert.assertEquals("travels", first.get("processId"));
+        Assert.assertEquals(ACTIVE.ordinal(), first.get("state"));
+        Assert.assertEquals(3, first.get("total"));
+        Assert.assertNotNull(first.get("lastStart"));
+        Assert.assertEquals("hotels", results.get(1).get("processId"));
+        Assert.assertEquals(COMPLETED.ordinal(), results.get(2).get("state"));
+    }
 }
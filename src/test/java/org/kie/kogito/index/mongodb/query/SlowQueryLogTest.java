@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.query;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import io.quarkus.mongodb.panache.runtime.MongoOperations;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.index.mongodb.MongoDBServerTestResource;
+import org.kie.kogito.index.mongodb.model.ProcessInstanceEntity;
+
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Sorts.ascending;
+
+@QuarkusTest
+@QuarkusTestResource(MongoDBServerTestResource.class)
+public class SlowQueryLogTest {
+
+    @Inject
+    MongoClient mongoClient;
+
+    SlowQueryLog slowQueryLog;
+
+    @BeforeEach
+    void setUp() {
+        slowQueryLog = new SlowQueryLog();
+        slowQueryLog.enabled = true;
+        slowQueryLog.threshold = Duration.ofMillis(10);
+        slowQueryLog.explainSampleRate = 1;
+        slowQueryLog.bufferSize = 2;
+        slowQueryLog.mongoClient = mongoClient;
+        slowQueryLog.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        slowQueryLog.destroy();
+    }
+
+    @Test
+    void testRecord() throws InterruptedException {
+        MongoCollection<ProcessInstanceEntity> collection = MongoOperations.mongoCollection(ProcessInstanceEntity.class);
+        slowQueryLog.record(collection, eq("processName", UUID.randomUUID().toString()), null, null, null, 0, Duration.ofMillis(5).toNanos());
+        Assert.assertTrue(slowQueryLog.getEntries().isEmpty());
+
+        slowQueryLog.record(collection, eq("processName", "first"), null, null, null, 0, Duration.ofMillis(20).toNanos());
+        slowQueryLog.record(collection, eq("processName", "second"), ascending("start"), 10, 5, 0, Duration.ofMillis(20).toNanos());
+        slowQueryLog.record(collection, eq("processName", "third"), null, null, null, 0, Duration.ofMillis(20).toNanos());
+
+        List<SlowQuery> entries = slowQueryLog.getEntries();
+        Assert.assertEquals(2, entries.size());
+        SlowQuery query = entries.get(0);
+        Assert.assertEquals("processinstances", query.getCollection());
+        Assert.assertTrue(query.getFilter().contains("second"));
+        Assert.assertTrue(query.getSort().contains("start"));
+        Assert.assertEquals(Integer.valueOf(10), query.getSkip());
+        Assert.assertEquals(Integer.valueOf(5), query.getLimit());
+
+        SlowQuery last = entries.get(1);
+        for (int i = 0; i < 100 && last.getPlanStages() == null; i++) {
+            Thread.sleep(100);
+        }
+        Assert.assertTrue(last.isCollectionScan());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.mongodb.utils;
+
+import java.util.Date;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.Document;
+import org.bson.json.JsonWriterSettings;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ModelUtilsTest {
+
+    static final JsonWriterSettings JSON_WRITER_SETTINGS = JsonWriterSettings.builder()
+            .int64Converter((value, writer) -> writer.writeNumber(value.toString())).build();
+
+    @Test
+    void testDocumentToJsonNodeMatchesJsonParsing() throws Exception {
+        Document document = new Document("string", "value")
+                .append("int", 1)
+                .append("smallLong", 2L)
+                .append("long", Long.MAX_VALUE)
+                .append("double", 1.5)
+                .append("nan", Double.NaN)
+                .append("boolean", true)
+                .append("null", null)
+                .append("date", new Date(1600000000000L))
+                .append("objectId", new ObjectId())
+                .append("decimal", Decimal128.parse("1.25"))
+                .append("array", asList(1, "two", new Document("three", 3L)))
+                .append("nested", new Document("traveller", new Document("firstName", "John").append("age", 30)));
+
+        JsonNode expected = JsonUtils.getObjectMapper().readTree(document.toJson(JSON_WRITER_SETTINGS));
+
+        ObjectNode node = ModelUtils.documentToJsonNode(document, ObjectNode.class);
+        assertThat(node).isEqualTo(expected);
+        assertThat(node.get("smallLong").isInt()).isTrue();
+        assertThat(node.get("long").isLong()).isTrue();
+
+        BsonDocument bsonDocument = BsonDocument.parse(document.toJson());
+        assertThat(ModelUtils.readJsonNode(new BsonDocumentReader(bsonDocument))).isEqualTo(expected);
+    }
+
+    @Test
+    void testDocumentToJsonNodeNull() {
+        assertThat(ModelUtils.documentToJsonNode(null, JsonNode.class)).isNull();
+    }
+
+    @Test
+    void testJsonNodeToDocumentMatchesDocumentParsing() throws Exception {
+        String json = "{\"string\": \"value\", \"int\": 1, \"long\": 9223372036854775807, \"double\": 1.5, \"boolean\": false, " +
+                "\"null\": null, \"date\": {\"$date\": \"2020-09-13T12:26:40Z\"}, \"array\": [1, \"two\", {\"three\": 3}], " +
+                "\"nested\": {\"traveller\": {\"firstName\": \"John\", \"age\": 30}}}";
+        JsonNode node = JsonUtils.getObjectMapper().readTree(json);
+
+        Document document = ModelUtils.jsonNodeToDocument(node);
+        assertThat(document).isEqualTo(Document.parse(json));
+        assertThat(document.get("long")).isInstanceOf(Long.class);
+        assertThat(document.get("date")).isInstanceOf(Date.class);
+
+        BsonDocument bsonDocument = new BsonDocument();
+        BsonDocumentWriter writer = new BsonDocumentWriter(bsonDocument);
+        ModelUtils.writeJsonNode(writer, node);
+        assertThat(bsonDocument).isEqualTo(BsonDocument.parse(json));
+    }
+
+    @Test
+    void testJsonNodeToDocumentExcludedField() throws Exception {
+        ObjectNode node = (ObjectNode) JsonUtils.getObjectMapper().readTree("{\"id\": \"1\", \"name\": \"travel\"}");
+
+        assertThat(ModelUtils.jsonNodeToDocument(node, "id")).isEqualTo(new Document("name", "travel"));
+        assertThat(node.has("id")).isTrue();
+    }
+}